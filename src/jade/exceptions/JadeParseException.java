@@ -0,0 +1,44 @@
+package jade.exceptions;
+
+/**
+ * This exception is used when a JADE script can't be parsed
+ * 
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class JadeParseException extends Exception {
+
+	private static final long serialVersionUID = -2270935841305526318L;
+	
+	private final int position;
+	private final int line;
+	private final int column;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param message	:	the description of the error	:	{@code String}
+	 * @param position	:	the offset of the error in the source	:	{@code int}
+	 * @param line		:	the line of the error, starting at {@code 1}	:	{@code int}
+	 * @param column	:	the column of the error, starting at {@code 1}	:	{@code int}
+	 */
+	public JadeParseException(String message, int position, int line, int column) {
+		super(message);
+		this.position = position;
+		this.line = line;
+		this.column = column;
+	}
+
+	public int getPosition() {
+		return this.position;
+	}
+
+	public int getLine() {
+		return this.line;
+	}
+
+	public int getColumn() {
+		return this.column;
+	}
+
+}
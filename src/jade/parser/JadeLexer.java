@@ -0,0 +1,467 @@
+package jade.parser;
+
+import jade.exceptions.JadeParseException;
+
+/**
+ * A single pass lexer for the JADE language
+ * <p>
+ * The lexer doesn't create token objects: {@link JadeLexer#next()} moves to the next token and exposes its
+ * kind, range and value through fields. Identifiers are interned in a table keyed directly by the source
+ * characters, so each distinct name is allocated once per lexer and keywords are recognized by identity.
+ * Whitespace, {@code //} and {@code /* *}{@code /} comments are skipped.
+ * <p>
+ * Like in Java, {@code --} and {@code ++} are single tokens, so {@code --1} is rejected instead of being read as
+ * a double negation ({@code - -1} is valid), and floating-point literals that round to infinity or, with a non
+ * zero significand, to zero are rejected ({@code f} suffixed literals are checked against the {@code float} range).
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class JadeLexer {
+
+	private static final String[] KEYWORDS = {"access", "from", "true", "false", "extends", "super"};
+	private static final JadeToken[] KEYWORD_TOKENS = {JadeToken.ACCESS, JadeToken.FROM, JadeToken.TRUE, JadeToken.FALSE, JadeToken.EXTENDS, JadeToken.SUPER};
+	private static final int INITIAL_NAMES = 64;
+
+	protected final char[] source;
+	protected final int length;
+	protected int pos;
+
+	//++++++++++++Current token
+
+	protected JadeToken token;
+	protected int tokenStart;
+	protected int tokenEnd;
+	/**
+	 * The value of {@code int} and {@code long} literals
+	 */
+	protected long longValue;
+	/**
+	 * {@code true} for the literals {@code 2147483648} and {@code 9223372036854775808L} (kept as {@code Long.MIN_VALUE}),
+	 * which are only valid after an unary minus
+	 */
+	protected boolean negationRequired;
+	protected double doubleValue;
+	/**
+	 * The interned name of identifiers
+	 */
+	protected String name;
+
+	//------------Current token
+
+	private String[] names;
+	private int nameCount;
+
+	/**
+	 * Constructor, the lexer is positioned before the first token
+	 *
+	 * @param source	:	the source to read	:	{@code char[]}
+	 * @param length	:	the amount of characters of {@code source} to read	:	{@code int}
+	 */
+	public JadeLexer(char[] source, int length) {
+		this.source = source;
+		this.length = length;
+		this.pos = 0;
+		this.names = new String[INITIAL_NAMES];
+		this.nameCount = 0;
+		for (String keyword : KEYWORDS) {
+			insert(keyword);
+		}
+	}
+
+	public JadeLexer(CharSequence source) {
+		this(source.toString().toCharArray(), source.length());
+	}
+
+	//++++++++++++Getters
+
+	public JadeToken getToken() {
+		return this.token;
+	}
+
+	/**
+	 * @return the offset of the first character of the current token	:	{@code int}
+	 */
+	public int getTokenStart() {
+		return this.tokenStart;
+	}
+
+	/**
+	 * @return the offset after the last character of the current token	:	{@code int}
+	 */
+	public int getTokenEnd() {
+		return this.tokenEnd;
+	}
+
+	public long getLongValue() {
+		return this.longValue;
+	}
+
+	public boolean isNegationRequired() {
+		return this.negationRequired;
+	}
+
+	public double getDoubleValue() {
+		return this.doubleValue;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	//------------Getters
+
+	/**
+	 * Moves to the next token
+	 *
+	 * @throws JadeParseException if the next token is not a valid JADE token
+	 */
+	public void next() throws JadeParseException {
+		skipWhitespaceAndComments();
+		this.tokenStart = this.pos;
+		if (this.pos >= this.length) {
+			this.token = JadeToken.EOF;
+			this.tokenEnd = this.pos;
+			return;
+		}
+		char c = this.source[this.pos];
+		if (Character.isJavaIdentifierStart(c)) {
+			scanIdentifier();
+		} else if (c >= '0' && c <= '9' || (c == '.' && this.pos + 1 < this.length && isDigit(this.source[this.pos + 1]))) {
+			scanNumber();
+		} else {
+			scanOperator(c);
+		}
+		this.tokenEnd = this.pos;
+	}
+
+	/**
+	 * Replaces a {@code >>} or {@code >>>} token by its last {@code >} or {@code >>} to close nested type arguments
+	 */
+	protected void splitGreater() {
+		this.tokenStart++;
+		this.token = this.token == JadeToken.GTGTGT?JadeToken.GTGT:JadeToken.GT;
+	}
+
+	/**
+	 * @return an exception for an error at {@code position}, with its line and column	:	{@code JadeParseException}
+	 */
+	protected JadeParseException error(String caller, String message, int position) {
+		int line = 1;
+		int column = 1;
+		for (int p = 0; p < position && p < this.length; p++) {
+			if (this.source[p] == '\n') {
+				line++;
+				column = 1;
+			} else {
+				column++;
+			}
+		}
+		return new JadeParseException(caller + " : " + line + ":" + column + " : " + message, position, line, column);
+	}
+
+	//++++++++++++Scanners (private)
+
+	private void skipWhitespaceAndComments() throws JadeParseException {
+		while (this.pos < this.length) {
+			char c = this.source[this.pos];
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f') {
+				this.pos++;
+			} else if (c == '/' && this.pos + 1 < this.length && this.source[this.pos + 1] == '/') {
+				this.pos += 2;
+				while (this.pos < this.length && this.source[this.pos] != '\n') {
+					this.pos++;
+				}
+			} else if (c == '/' && this.pos + 1 < this.length && this.source[this.pos + 1] == '*') {
+				int start = this.pos;
+				this.pos += 2;
+				while (this.pos + 1 < this.length && !(this.source[this.pos] == '*' && this.source[this.pos + 1] == '/')) {
+					this.pos++;
+				}
+				if (this.pos + 1 >= this.length) {
+					throw error("jade.parser.JadeLexer#next", "unclosed comment", start);
+				}
+				this.pos += 2;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void scanIdentifier() {
+		int start = this.pos;
+		this.pos++;
+		while (this.pos < this.length && Character.isJavaIdentifierPart(this.source[this.pos])) {
+			this.pos++;
+		}
+		this.name = intern(this.source, start, this.pos - start);
+		this.token = JadeToken.IDENTIFIER;
+		for (int k = 0; k < KEYWORDS.length; k++) {
+			if (this.name == KEYWORDS[k]) {
+				this.token = KEYWORD_TOKENS[k];
+				return;
+			}
+		}
+	}
+
+	private void scanNumber() throws JadeParseException {
+		int start = this.pos;
+		this.negationRequired = false;
+		if (this.source[this.pos] == '0' && this.pos + 1 < this.length && (this.source[this.pos + 1] == 'x' || this.source[this.pos + 1] == 'X')) {
+			this.pos += 2;
+			long value = 0;
+			int digits = 0;
+			while (this.pos < this.length) {
+				int digit = Character.digit(this.source[this.pos], 16);
+				if (digit < 0) {
+					break;
+				}
+				if (digits++ == 16) {
+					throw error("jade.parser.JadeLexer#next", "hexadecimal literal too large", start);
+				}
+				value = (value << 4) | digit;
+				this.pos++;
+			}
+			if (digits == 0) {
+				throw error("jade.parser.JadeLexer#next", "malformed hexadecimal literal", start);
+			}
+			this.longValue = value;
+			if (isLongSuffix()) {
+				this.token = JadeToken.LONG_LITERAL;
+			} else if (digits > 8) {
+				throw error("jade.parser.JadeLexer#next", "int literal too large", start);
+			} else {
+				this.longValue = (int) value;
+				this.token = JadeToken.INT_LITERAL;
+			}
+			checkEndOfNumber(start);
+			return;
+		}
+		long value = 0;
+		boolean overflow = false;
+		while (this.pos < this.length && isDigit(this.source[this.pos])) {
+			int digit = this.source[this.pos++] - '0';
+			if (value > Long.MAX_VALUE / 10 || (value == Long.MAX_VALUE / 10 && digit > 8)) {
+				overflow = true;
+			}
+			value = value * 10 + digit;
+		}
+		boolean decimal = false;
+		if (this.pos < this.length && this.source[this.pos] == '.' && !(this.pos + 1 < this.length && Character.isJavaIdentifierStart(this.source[this.pos + 1]))) {
+			decimal = true;
+			this.pos++;
+			while (this.pos < this.length && isDigit(this.source[this.pos])) {
+				this.pos++;
+			}
+		}
+		if (this.pos < this.length && (this.source[this.pos] == 'e' || this.source[this.pos] == 'E')) {
+			decimal = true;
+			this.pos++;
+			if (this.pos < this.length && (this.source[this.pos] == '+' || this.source[this.pos] == '-')) {
+				this.pos++;
+			}
+			if (this.pos >= this.length || !isDigit(this.source[this.pos])) {
+				throw error("jade.parser.JadeLexer#next", "malformed exponent", start);
+			}
+			while (this.pos < this.length && isDigit(this.source[this.pos])) {
+				this.pos++;
+			}
+		}
+		if (this.pos < this.length && "dDfF".indexOf(this.source[this.pos]) >= 0) {
+			decimal = true;
+			this.pos++;
+		}
+		if (decimal) {
+			int end = this.pos;
+			if ("dDfF".indexOf(this.source[end - 1]) >= 0) {
+				end--;
+			}
+			String literal = new String(this.source, start, end - start);
+			this.doubleValue = Double.parseDouble(literal);
+			boolean isFloat = end < this.pos && (this.source[end] == 'f' || this.source[end] == 'F');
+			double rounded = isFloat?Float.parseFloat(literal):this.doubleValue;
+			if (Double.isInfinite(rounded)) {
+				throw error("jade.parser.JadeLexer#next", "floating-point literal too large", start);
+			}
+			if (rounded == 0 && hasNonZeroDigit(start, end)) {
+				throw error("jade.parser.JadeLexer#next", "floating-point literal too small", start);
+			}
+			this.token = JadeToken.DOUBLE_LITERAL;
+		} else if (isLongSuffix()) {
+			if (overflow) {
+				throw error("jade.parser.JadeLexer#next", "long literal too large", start);
+			}
+			this.longValue = value;
+			this.negationRequired = value == Long.MIN_VALUE;
+			this.token = JadeToken.LONG_LITERAL;
+		} else {
+			if (overflow || value < 0 || value > 1L + Integer.MAX_VALUE) {
+				throw error("jade.parser.JadeLexer#next", "int literal too large", start);
+			}
+			this.longValue = value;
+			this.negationRequired = value == 1L + Integer.MAX_VALUE;
+			this.token = JadeToken.INT_LITERAL;
+		}
+		checkEndOfNumber(start);
+	}
+
+	private boolean isLongSuffix() {
+		if (this.pos < this.length && (this.source[this.pos] == 'L' || this.source[this.pos] == 'l')) {
+			this.pos++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return {@code true} if the significand of the decimal literal between {@code start} and {@code end} is not zero	:	{@code boolean}
+	 */
+	private boolean hasNonZeroDigit(int start, int end) {
+		for (int p = start; p < end && this.source[p] != 'e' && this.source[p] != 'E'; p++) {
+			if (this.source[p] >= '1' && this.source[p] <= '9') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void checkEndOfNumber(int start) throws JadeParseException {
+		if (this.pos < this.length && Character.isJavaIdentifierPart(this.source[this.pos])) {
+			throw error("jade.parser.JadeLexer#next", "malformed number", start);
+		}
+	}
+
+	private void scanOperator(char c) throws JadeParseException {
+		char next = this.pos + 1 < this.length?this.source[this.pos + 1]:'\0';
+		switch (c) {
+			case '{': single(JadeToken.LBRACE); return;
+			case '}': single(JadeToken.RBRACE); return;
+			case '(': single(JadeToken.LPAREN); return;
+			case ')': single(JadeToken.RPAREN); return;
+			case '[': single(JadeToken.LBRACKET); return;
+			case ']': single(JadeToken.RBRACKET); return;
+			case ';': single(JadeToken.SEMI); return;
+			case ',': single(JadeToken.COMMA); return;
+			case '.': single(JadeToken.DOT); return;
+			case '?': single(JadeToken.QUESTION); return;
+			case '+':
+			case '-': {
+				if (next == c) {
+					throw error("jade.parser.JadeLexer#next", "increment and decrement operators are not supported, separate the signs with a space", this.pos);
+				}
+				single(c == '+'?JadeToken.PLUS:JadeToken.MINUS);
+				return;
+			}
+			case '*': single(JadeToken.STAR); return;
+			case '/': single(JadeToken.SLASH); return;
+			case '%': single(JadeToken.PERCENT); return;
+			case '^': single(JadeToken.CARET); return;
+			case '~': single(JadeToken.TILDE); return;
+			case '=': pair(next == '=', JadeToken.EQEQ, JadeToken.ASSIGN); return;
+			case '!': pair(next == '=', JadeToken.BANGEQ, JadeToken.BANG); return;
+			case '&': pair(next == '&', JadeToken.AMPAMP, JadeToken.AMP); return;
+			case '|': pair(next == '|', JadeToken.BARBAR, JadeToken.BAR); return;
+			case '<': {
+				if (next == '<') {
+					pair(true, JadeToken.LTLT, null);
+				} else {
+					pair(next == '=', JadeToken.LTEQ, JadeToken.LT);
+				}
+				return;
+			}
+			case '>': {
+				if (next == '>') {
+					boolean unsigned = this.pos + 2 < this.length && this.source[this.pos + 2] == '>';
+					this.pos += unsigned?3:2;
+					this.token = unsigned?JadeToken.GTGTGT:JadeToken.GTGT;
+				} else {
+					pair(next == '=', JadeToken.GTEQ, JadeToken.GT);
+				}
+				return;
+			}
+			default: throw error("jade.parser.JadeLexer#next", "illegal character '" + c + "'", this.pos);
+		}
+	}
+
+	private void single(JadeToken token) {
+		this.pos++;
+		this.token = token;
+	}
+
+	private void pair(boolean isPair, JadeToken pairToken, JadeToken singleToken) {
+		this.pos += isPair?2:1;
+		this.token = isPair?pairToken:singleToken;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	//------------Scanners (private)
+
+	//++++++++++++Names (private)
+
+	/**
+	 * @return the shared string with the characters {@code chars[start, start + count)}	:	{@code String}
+	 */
+	private String intern(char[] chars, int start, int count) {
+		int hash = 0;
+		for (int c = start; c < start + count; c++) {
+			hash = 31 * hash + chars[c];
+		}
+		int mask = this.names.length - 1;
+		int slot = hash & mask;
+		String name;
+		while ((name = this.names[slot]) != null) {
+			if (name.hashCode() == hash && matches(name, chars, start, count)) {
+				return name;
+			}
+			slot = (slot + 1) & mask;
+		}
+		name = new String(chars, start, count);
+		insert(name);
+		return name;
+	}
+
+	private void insert(String name) {
+		int mask = this.names.length - 1;
+		int slot = name.hashCode() & mask;
+		while (this.names[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		this.names[slot] = name;
+		if (++this.nameCount * 2 > this.names.length) {
+			rehash();
+		}
+	}
+
+	private static boolean matches(String name, char[] chars, int start, int count) {
+		if (name.length() != count) {
+			return false;
+		}
+		for (int c = 0; c < count; c++) {
+			if (name.charAt(c) != chars[start + c]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void rehash() {
+		String[] old = this.names;
+		this.names = new String[old.length * 2];
+		int mask = this.names.length - 1;
+		for (String name : old) {
+			if (name != null) {
+				int slot = name.hashCode() & mask;
+				while (this.names[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				this.names[slot] = name;
+			}
+		}
+	}
+
+	//------------Names (private)
+
+}
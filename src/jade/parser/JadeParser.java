@@ -0,0 +1,449 @@
+package jade.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jade.exceptions.JadeParseException;
+import jade.tree.AccessTree;
+import jade.tree.AssignmentTree;
+import jade.tree.BinaryTree;
+import jade.tree.BlockTree;
+import jade.tree.BoundsTree;
+import jade.tree.ConstantTree;
+import jade.tree.ExpressionEvaluator;
+import jade.tree.ExpressionTree;
+import jade.tree.IdentifierExpressionTree;
+import jade.tree.IdentifierTree;
+import jade.tree.StatementTree;
+import jade.tree.Tree;
+import jade.tree.TypeResolver;
+import jade.tree.TypeTree;
+import jade.tree.UnaryTree;
+
+/**
+ * A recursive descent parser for the JADE language
+ * <p>
+ * The grammar is the following:
+ * <pre>
+ * script     := access*
+ * access     := 'access' identifier ['from' identifier] block
+ * block      := '{' statement* '}'
+ * statement  := block | identifier '=' expression ';'
+ * expression := the Java expressions over int, long, double and boolean literals and identifiers,
+ *               with the unary operators - ! ~ and the binary operators of {@link BinaryTree.Operator}
+ *               ({@code --} is rejected like in Java, a double negation is written {@code - -x})
+ * type       := ('?' | name ['&lt;' type (',' type)* '&gt;'] ('[' ']')*) [('extends' type ('&amp;' type)*) | ('super' type)]
+ * </pre>
+ * Types are only parsed by {@link JadeParser#parseType()}. Qualified and primitive names are class and
+ * primitive types, named by their binary name ({@code java.util.Map$Entry}), simple names are identifier types.
+ * <p>
+ * The parser reads the tokens of a {@link JadeLexer} in a single pass and folds constant subexpressions as
+ * they are built. The position of every node is recorded in a {@link TreePositions}. A parser reads a single
+ * source and can only be used once.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class JadeParser {
+
+	private static final int INITIAL_STATEMENTS = 32;
+	private static final int[] PRECEDENCES = new int[JadeToken.values().length];
+	private static final BinaryTree.Operator[] OPERATORS = new BinaryTree.Operator[JadeToken.values().length];
+	static {
+		operator(JadeToken.BARBAR, BinaryTree.Operator.CONDITIONAL_OR, 1);
+		operator(JadeToken.AMPAMP, BinaryTree.Operator.CONDITIONAL_AND, 2);
+		operator(JadeToken.BAR, BinaryTree.Operator.OR, 3);
+		operator(JadeToken.CARET, BinaryTree.Operator.XOR, 4);
+		operator(JadeToken.AMP, BinaryTree.Operator.AND, 5);
+		operator(JadeToken.EQEQ, BinaryTree.Operator.EQUAL, 6);
+		operator(JadeToken.BANGEQ, BinaryTree.Operator.NOT_EQUAL, 6);
+		operator(JadeToken.LT, BinaryTree.Operator.LESS, 7);
+		operator(JadeToken.GT, BinaryTree.Operator.GREATER, 7);
+		operator(JadeToken.LTEQ, BinaryTree.Operator.LESS_EQUAL, 7);
+		operator(JadeToken.GTEQ, BinaryTree.Operator.GREATER_EQUAL, 7);
+		operator(JadeToken.LTLT, BinaryTree.Operator.SHIFT_LEFT, 8);
+		operator(JadeToken.GTGT, BinaryTree.Operator.SHIFT_RIGHT, 8);
+		operator(JadeToken.GTGTGT, BinaryTree.Operator.UNSIGNED_SHIFT_RIGHT, 8);
+		operator(JadeToken.PLUS, BinaryTree.Operator.PLUS, 9);
+		operator(JadeToken.MINUS, BinaryTree.Operator.MINUS, 9);
+		operator(JadeToken.STAR, BinaryTree.Operator.TIMES, 10);
+		operator(JadeToken.SLASH, BinaryTree.Operator.DIVIDE, 10);
+		operator(JadeToken.PERCENT, BinaryTree.Operator.REMAINDER, 10);
+	}
+
+	protected final JadeLexer lexer;
+	protected final TreePositions positions;
+	/**
+	 * The offset after the last consumed token
+	 */
+	private int lastEnd;
+	/**
+	 * The statements of the blocks being parsed, each block uses the range above the statements of its enclosing block
+	 */
+	private StatementTree[] statements;
+	private int statementCount;
+
+	public JadeParser(JadeLexer lexer) {
+		this.lexer = lexer;
+		this.positions = new TreePositions();
+		this.lastEnd = 0;
+		this.statements = new StatementTree[INITIAL_STATEMENTS];
+		this.statementCount = 0;
+	}
+
+	public JadeParser(CharSequence source) {
+		this(new JadeLexer(source));
+	}
+
+	/**
+	 * @param source	:	the script to parse	:	{@code CharSequence}
+	 * @return the parsed script	:	{@code JadeScript}
+	 * @throws JadeParseException if {@code source} is not a valid JADE script
+	 */
+	public static JadeScript parse(CharSequence source) throws JadeParseException {
+		return new JadeParser(source).parseScript();
+	}
+
+	//++++++++++++Entry points
+
+	/**
+	 * @return the script read from the whole source	:	{@code JadeScript}
+	 * @throws JadeParseException if the source is not a valid JADE script
+	 */
+	public JadeScript parseScript() throws JadeParseException {
+		start();
+		List<AccessTree> accesses = new ArrayList<AccessTree>();
+		while (this.lexer.token != JadeToken.EOF) {
+			accesses.add(access());
+		}
+		return new JadeScript(Collections.unmodifiableList(accesses), this.positions);
+	}
+
+	/**
+	 * @return the expression read from the whole source, with its constant subexpressions folded	:	{@code ExpressionTree}
+	 * @throws JadeParseException if the source is not a valid JADE expression
+	 */
+	public ExpressionTree parseExpression() throws JadeParseException {
+		start();
+		ExpressionTree expression = expression(1);
+		expect(JadeToken.EOF);
+		return expression;
+	}
+
+	/**
+	 * @return the type read from the whole source	:	{@code TypeTree}
+	 * @throws JadeParseException if the source is not a valid JADE type
+	 */
+	public TypeTree parseType() throws JadeParseException {
+		start();
+		TypeTree type = type();
+		expect(JadeToken.EOF);
+		return type;
+	}
+
+	/**
+	 * @return the positions of the nodes created by this parser	:	{@code TreePositions}
+	 */
+	public TreePositions getPositions() {
+		return this.positions;
+	}
+
+	//------------Entry points
+
+	//++++++++++++Declarations and statements
+
+	private AccessTree access() throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		expect(JadeToken.ACCESS);
+		IdentifierTree identifier = identifier();
+		IdentifierTree from = null;
+		if (this.lexer.token == JadeToken.FROM) {
+			advance();
+			from = identifier();
+		}
+		BlockTree block = block();
+		return record(from == null?new AccessTree(identifier, block):new AccessTree(identifier, from, block), start);
+	}
+
+	private BlockTree block() throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		expect(JadeToken.LBRACE);
+		int base = this.statementCount;
+		while (this.lexer.token != JadeToken.RBRACE) {
+			StatementTree statement = statement();
+			if (this.statementCount == this.statements.length) {
+				this.statements = Arrays.copyOf(this.statements, this.statementCount * 2);
+			}
+			this.statements[this.statementCount++] = statement;
+		}
+		advance();
+		StatementTree[] blockStatements = Arrays.copyOfRange(this.statements, base, this.statementCount);
+		Arrays.fill(this.statements, base, this.statementCount, null);
+		this.statementCount = base;
+		return record(new BlockTree(null, blockStatements), start);
+	}
+
+	private StatementTree statement() throws JadeParseException {
+		switch (this.lexer.token) {
+			case LBRACE: return block();
+			case IDENTIFIER: {
+				int start = this.lexer.tokenStart;
+				IdentifierTree identifier = identifier();
+				expect(JadeToken.ASSIGN);
+				ExpressionTree expression = expression(1);
+				expect(JadeToken.SEMI);
+				return record(new AssignmentTree(identifier, expression), start);
+			}
+			default: throw unexpected("a statement");
+		}
+	}
+
+	private IdentifierTree identifier() throws JadeParseException {
+		if (this.lexer.token != JadeToken.IDENTIFIER) {
+			throw unexpected("an identifier");
+		}
+		int start = this.lexer.tokenStart;
+		String name = this.lexer.name;
+		advance();
+		return record(new IdentifierTree(name), start);
+	}
+
+	//------------Declarations and statements
+
+	//++++++++++++Expressions
+
+	/**
+	 * Parses a sequence of binary operations by precedence climbing, operators with a precedence lower
+	 * than {@code minPrecedence} end the expression
+	 */
+	private ExpressionTree expression(int minPrecedence) throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		ExpressionTree left = unary();
+		while (true) {
+			int precedence = PRECEDENCES[this.lexer.token.ordinal()];
+			if (precedence == 0 || precedence < minPrecedence) {
+				return left;
+			}
+			BinaryTree.Operator operator = OPERATORS[this.lexer.token.ordinal()];
+			advance();
+			ExpressionTree right = expression(precedence + 1);
+			BinaryTree binary = new BinaryTree(left, operator, right);
+			left = left.isConstant() && right.isConstant()?record(ExpressionEvaluator.fold(binary), start):record(binary, start);
+		}
+	}
+
+	private ExpressionTree unary() throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		UnaryTree.Operator operator;
+		switch (this.lexer.token) {
+			case MINUS: {
+				advance();
+				if (this.lexer.negationRequired && (this.lexer.token == JadeToken.INT_LITERAL || this.lexer.token == JadeToken.LONG_LITERAL)) {
+					boolean isInt = this.lexer.token == JadeToken.INT_LITERAL;
+					advance();
+					return record(isInt?new ConstantTree(Integer.MIN_VALUE):new ConstantTree(Long.MIN_VALUE), start);
+				}
+				operator = UnaryTree.Operator.NEGATE;
+				break;
+			}
+			case BANG: advance(); operator = UnaryTree.Operator.NOT; break;
+			case TILDE: advance(); operator = UnaryTree.Operator.COMPLEMENT; break;
+			default: return primary();
+		}
+		ExpressionTree operand = unary();
+		UnaryTree unary = new UnaryTree(operator, operand);
+		return operand.isConstant()?record(ExpressionEvaluator.fold(unary), start):record(unary, start);
+	}
+
+	private ExpressionTree primary() throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		switch (this.lexer.token) {
+			case INT_LITERAL:
+			case LONG_LITERAL: {
+				if (this.lexer.negationRequired) {
+					throw this.lexer.error("jade.parser.JadeParser#primary", "integer literal too large", start);
+				}
+				ConstantTree constant = this.lexer.token == JadeToken.INT_LITERAL?new ConstantTree((int) this.lexer.longValue):new ConstantTree(this.lexer.longValue);
+				advance();
+				return record(constant, start);
+			}
+			case DOUBLE_LITERAL: {
+				ConstantTree constant = new ConstantTree(this.lexer.doubleValue);
+				advance();
+				return record(constant, start);
+			}
+			case TRUE:
+			case FALSE: {
+				ConstantTree constant = new ConstantTree(this.lexer.token == JadeToken.TRUE);
+				advance();
+				return record(constant, start);
+			}
+			case IDENTIFIER: return record(new IdentifierExpressionTree(identifier()), start);
+			case LPAREN: {
+				advance();
+				ExpressionTree expression = expression(1);
+				expect(JadeToken.RPAREN);
+				return expression;
+			}
+			default: throw unexpected("an expression");
+		}
+	}
+
+	//------------Expressions
+
+	//++++++++++++Types
+
+	private TypeTree type() throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		TypeTree type;
+		if (this.lexer.token == JadeToken.QUESTION) {
+			advance();
+			type = record(new TypeTree(record(new IdentifierTree("?"), start)), start);
+		} else {
+			type = namedType();
+		}
+		if (this.lexer.token == JadeToken.EXTENDS) {
+			advance();
+			int boundsStart = this.lexer.tokenStart;
+			List<TypeTree> bounds = new ArrayList<TypeTree>(2);
+			bounds.add(type());
+			while (this.lexer.token == JadeToken.AMP) {
+				advance();
+				bounds.add(type());
+			}
+			BoundsTree boundsTree = record(new BoundsTree(bounds), boundsStart);
+			return record(new TypeTree(type, boundsTree), start);
+		}
+		if (this.lexer.token == JadeToken.SUPER) {
+			advance();
+			return record(new TypeTree(type, type()), start);
+		}
+		return type;
+	}
+
+	private TypeTree namedType() throws JadeParseException {
+		int start = this.lexer.tokenStart;
+		IdentifierTree first = identifier();
+		String name = first.getName();
+		boolean qualified = false;
+		if (this.lexer.token == JadeToken.DOT) {
+			StringBuilder qualifiedName = new StringBuilder(name);
+			while (this.lexer.token == JadeToken.DOT) {
+				advance();
+				if (this.lexer.token != JadeToken.IDENTIFIER) {
+					throw unexpected("an identifier");
+				}
+				qualifiedName.append('.').append(this.lexer.name);
+				advance();
+			}
+			name = qualifiedName.toString();
+			qualified = true;
+		}
+		boolean classOrPrimitive = qualified || TypeResolver.isPrimitive(name);
+		if (this.lexer.token == JadeToken.LBRACKET) {
+			if (!classOrPrimitive) {
+				throw this.lexer.error("jade.parser.JadeParser#type", "arrays are only supported for class and primitive types", start);
+			}
+			StringBuilder arrayName = new StringBuilder();
+			while (this.lexer.token == JadeToken.LBRACKET) {
+				advance();
+				expect(JadeToken.RBRACKET);
+				arrayName.append('[');
+			}
+			return record(new TypeTree(arrayName.append(descriptor(name)).toString()), start);
+		}
+		TypeTree type = classOrPrimitive?new TypeTree(name):new TypeTree(first);
+		record(type, start);
+		if (this.lexer.token != JadeToken.LT) {
+			return type;
+		}
+		advance();
+		List<TypeTree> typeParameters = new ArrayList<TypeTree>(2);
+		typeParameters.add(type());
+		while (this.lexer.token == JadeToken.COMMA) {
+			advance();
+			typeParameters.add(type());
+		}
+		expectGreater();
+		return record(new TypeTree(type, typeParameters, true), start);
+	}
+
+	private void expectGreater() throws JadeParseException {
+		if (this.lexer.token == JadeToken.GTGT || this.lexer.token == JadeToken.GTGTGT) {
+			this.lastEnd = this.lexer.tokenStart + 1;
+			this.lexer.splitGreater();
+		} else {
+			expect(JadeToken.GT);
+		}
+	}
+
+	private static String descriptor(String typeName) {
+		switch (typeName) {
+			case "boolean": return "Z";
+			case "byte": return "B";
+			case "char": return "C";
+			case "short": return "S";
+			case "int": return "I";
+			case "long": return "J";
+			case "float": return "F";
+			case "double": return "D";
+			default: return 'L' + typeName + ';';
+		}
+	}
+
+	//------------Types
+
+	//++++++++++++Tokens (private)
+
+	private void start() throws JadeParseException {
+		if (this.lexer.token != null) {
+			throw new IllegalStateException("jade.parser.JadeParser : a parser can only be used once");
+		}
+		this.lexer.next();
+	}
+
+	private void advance() throws JadeParseException {
+		this.lastEnd = this.lexer.tokenEnd;
+		this.lexer.next();
+	}
+
+	private void expect(JadeToken token) throws JadeParseException {
+		if (this.lexer.token != token) {
+			throw unexpected("'" + token.getText() + "'");
+		}
+		if (token != JadeToken.EOF) {
+			advance();
+		}
+	}
+
+	private JadeParseException unexpected(String expected) {
+		String found;
+		switch (this.lexer.token) {
+			case IDENTIFIER: found = "identifier " + this.lexer.name; break;
+			case EOF: found = this.lexer.token.getText(); break;
+			case INT_LITERAL:
+			case LONG_LITERAL:
+			case DOUBLE_LITERAL: found = this.lexer.token.getText(); break;
+			default: found = "'" + this.lexer.token.getText() + "'";
+		}
+		return this.lexer.error("jade.parser.JadeParser", "expected " + expected + " but found " + found, this.lexer.tokenStart);
+	}
+
+	/**
+	 * Records the position of {@code tree}, from {@code start} to the end of the last consumed token
+	 */
+	private <T extends Tree> T record(T tree, int start) {
+		this.positions.record(tree, start, this.lastEnd);
+		return tree;
+	}
+
+	private static void operator(JadeToken token, BinaryTree.Operator operator, int precedence) {
+		PRECEDENCES[token.ordinal()] = precedence;
+		OPERATORS[token.ordinal()] = operator;
+	}
+
+	//------------Tokens (private)
+
+}
@@ -0,0 +1,42 @@
+package jade.parser;
+
+import java.util.List;
+
+import jade.tree.AccessTree;
+
+/**
+ * A parsed JADE script: its accesses and the source positions of its nodes
+ * <p>
+ * Scripts returned by a {@link ScriptCache} are shared, their trees must not be modified.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class JadeScript {
+
+	protected final List<AccessTree> accesses;
+	protected final TreePositions positions;
+
+	/**
+	 * Constructor
+	 *
+	 * @param accesses	:	the accesses of the script, in source order	:	{@code List<AccessTree>}
+	 * @param positions	:	the positions of the nodes of the script	:	{@code TreePositions}
+	 */
+	protected JadeScript(List<AccessTree> accesses, TreePositions positions) {
+		this.accesses = accesses;
+		this.positions = positions;
+	}
+
+	/**
+	 * @return a read only list of the accesses of the script, in source order	:	{@code List<AccessTree>}
+	 */
+	public List<AccessTree> getAccesses() {
+		return this.accesses;
+	}
+
+	public TreePositions getPositions() {
+		return this.positions;
+	}
+
+}
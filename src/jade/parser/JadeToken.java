@@ -0,0 +1,34 @@
+package jade.parser;
+
+/**
+ * The tokens of the JADE language
+ * 
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public enum JadeToken {
+	IDENTIFIER("identifier"), INT_LITERAL("int literal"), LONG_LITERAL("long literal"), DOUBLE_LITERAL("double literal"),
+	ACCESS("access"), FROM("from"), TRUE("true"), FALSE("false"), EXTENDS("extends"), SUPER("super"),
+	LBRACE("{"), RBRACE("}"), LPAREN("("), RPAREN(")"), LBRACKET("["), RBRACKET("]"),
+	SEMI(";"), COMMA(","), DOT("."), QUESTION("?"), ASSIGN("="),
+	PLUS("+"), MINUS("-"), STAR("*"), SLASH("/"), PERCENT("%"),
+	LTLT("<<"), GTGT(">>"), GTGTGT(">>>"),
+	LT("<"), GT(">"), LTEQ("<="), GTEQ(">="), EQEQ("=="), BANGEQ("!="),
+	AMP("&"), CARET("^"), BAR("|"), AMPAMP("&&"), BARBAR("||"),
+	BANG("!"), TILDE("~"),
+	EOF("end of input");
+	
+	private final String text;
+	
+	private JadeToken(String text) {
+		this.text = text;
+	}
+	
+	/**
+	 * @return the text of the token or a description for identifiers, literals and the end of input	:	{@code String}
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+}
@@ -0,0 +1,140 @@
+package jade.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jade.exceptions.JadeParseException;
+
+/**
+ * A bounded cache of parsed scripts keyed by the SHA-1 hash of their content
+ * <p>
+ * Scripts are immutable once parsed so the same {@link JadeScript} is returned for every source with the same
+ * content, regardless of where it was read from. When the cache is full the least recently used script is
+ * discarded. Parsing is done outside the lock, so two threads missing the same content at the same time
+ * will both parse it and the last one wins.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ScriptCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 256;
+
+	private final Map<String, JadeScript> scripts;
+	private long hits;
+	private long misses;
+
+	public ScriptCache() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries	:	the maximum amount of scripts kept in the cache	:	{@code int}
+	 */
+	public ScriptCache(final int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("jade.parser.ScriptCache#ScriptCache : maxEntries must be positive (" + maxEntries + ")");
+		}
+		this.scripts = new LinkedHashMap<String, JadeScript>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, JadeScript> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @param source	:	the script to parse	:	{@code CharSequence}
+	 * @return the cached script with the same content as {@code source}, or the newly parsed one	:	{@code JadeScript}
+	 * @throws JadeParseException if {@code source} is not a valid JADE script
+	 */
+	public JadeScript parse(CharSequence source) throws JadeParseException {
+		byte[] bytes = source.toString().getBytes(StandardCharsets.UTF_8);
+		String hash = contentHash(bytes);
+		JadeScript script = lookup(hash);
+		if (script == null) {
+			script = JadeParser.parse(source);
+			store(hash, script);
+		}
+		return script;
+	}
+
+	/**
+	 * The file is only decoded when its content is not already cached
+	 *
+	 * @param file	:	a UTF-8 encoded script	:	{@code File}
+	 * @return the cached script with the same content as {@code file}, or the newly parsed one	:	{@code JadeScript}
+	 * @throws IOException if the file can't be read
+	 * @throws JadeParseException if the file is not a valid JADE script
+	 */
+	public JadeScript parse(File file) throws IOException, JadeParseException {
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		String hash = contentHash(bytes);
+		JadeScript script = lookup(hash);
+		if (script == null) {
+			script = JadeParser.parse(new String(bytes, StandardCharsets.UTF_8));
+			store(hash, script);
+		}
+		return script;
+	}
+
+	/**
+	 * @param bytes	:	the content to hash	:	{@code byte[]}
+	 * @return the SHA-1 hash of {@code bytes} as a lowercase hexadecimal string	:	{@code String}
+	 */
+	public static String contentHash(byte[] bytes) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("jade.parser.ScriptCache#contentHash", e);
+		}
+		byte[] sha = digest.digest(bytes);
+		StringBuilder hex = new StringBuilder(sha.length * 2);
+		for (byte b : sha) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	public synchronized int size() {
+		return this.scripts.size();
+	}
+
+	public synchronized void clear() {
+		this.scripts.clear();
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+	private synchronized JadeScript lookup(String hash) {
+		JadeScript script = this.scripts.get(hash);
+		if (script == null) {
+			this.misses++;
+		} else {
+			this.hits++;
+		}
+		return script;
+	}
+
+	private synchronized void store(String hash, JadeScript script) {
+		this.scripts.put(hash, script);
+	}
+
+}
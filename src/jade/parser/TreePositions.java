@@ -0,0 +1,99 @@
+package jade.parser;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import jade.tree.Tree;
+
+/**
+ * The source positions of the nodes created by a {@link JadeParser}
+ * <p>
+ * Positions are kept in a side table instead of in the nodes, so trees built by hand don't pay for them.
+ * They are appended to parallel arrays while parsing and indexed by node identity on the first lookup.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TreePositions {
+
+	/**
+	 * The position returned for nodes without a recorded position
+	 */
+	public static final int NOPOS = -1;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	protected Tree[] trees;
+	protected int[] starts;
+	protected int[] ends;
+	protected int size;
+	/**
+	 * The position of each node in the arrays, created on first lookup
+	 */
+	protected Map<Tree, Integer> index;
+
+	public TreePositions() {
+		this.trees = new Tree[INITIAL_CAPACITY];
+		this.starts = new int[INITIAL_CAPACITY];
+		this.ends = new int[INITIAL_CAPACITY];
+		this.size = 0;
+		this.index = null;
+	}
+
+	/**
+	 * @param tree	:	the node	:	{@code Tree}
+	 * @param start	:	the offset of the first character of {@code tree}	:	{@code int}
+	 * @param end	:	the offset after the last character of {@code tree}	:	{@code int}
+	 */
+	protected void record(Tree tree, int start, int end) {
+		if (this.size == this.trees.length) {
+			int capacity = this.size * 2;
+			this.trees = Arrays.copyOf(this.trees, capacity);
+			this.starts = Arrays.copyOf(this.starts, capacity);
+			this.ends = Arrays.copyOf(this.ends, capacity);
+		}
+		this.trees[this.size] = tree;
+		this.starts[this.size] = start;
+		this.ends[this.size] = end;
+		if (this.index != null) {
+			this.index.put(tree, this.size);
+		}
+		this.size++;
+	}
+
+	/**
+	 * @return the offset of the first character of {@code tree} or {@link TreePositions#NOPOS}	:	{@code int}
+	 */
+	public int getStartPosition(Tree tree) {
+		int position = find(tree);
+		return position < 0?NOPOS:this.starts[position];
+	}
+
+	/**
+	 * @return the offset after the last character of {@code tree} or {@link TreePositions#NOPOS}	:	{@code int}
+	 */
+	public int getEndPosition(Tree tree) {
+		int position = find(tree);
+		return position < 0?NOPOS:this.ends[position];
+	}
+
+	/**
+	 * @return the amount of nodes with a recorded position	:	{@code int}
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	private synchronized int find(Tree tree) {
+		if (this.index == null) {
+			this.index = new IdentityHashMap<Tree, Integer>(this.size * 2);
+			for (int t = 0; t < this.size; t++) {
+				this.index.put(this.trees[t], t);
+			}
+		}
+		Integer position = this.index.get(tree);
+		return position == null?-1:position;
+	}
+
+}
@@ -0,0 +1,291 @@
+package jade.tree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterative traversal over a tree in pre-order, post-order or breadth-first order
+ * <p>
+ * The traversal is driven by an explicit stack (or queue for breadth-first) of slots, so deep trees can't
+ * overflow the call stack, and advancing doesn't allocate except when the slot arrays grow. Subclasses
+ * decide how nodes are stored in the slots, which allows the same traversal over object trees
+ * ({@link TreeCursor}) and over compact representations ({@link ArenaCursor}).
+ * <p>
+ * Usage:
+ * <pre>
+ * while (cursor.next()) {
+ *     ... cursor.current() ... cursor.depth() ...
+ * }
+ * </pre>
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public abstract class AbstractTreeCursor {
+
+	public static enum Order {PRE_ORDER, POST_ORDER, BREADTH_FIRST};
+
+	private static final int INITIAL_CAPACITY = 16;
+	private static final int NOT_STARTED = -2;
+	private static final int FINISHED = -1;
+
+	protected final Order order;
+	/**
+	 * For depth-first orders the position of the next child to visit of the node in each stack slot,
+	 * for breadth-first the depth of the node in each queue slot
+	 */
+	protected int[] slotData;
+	/**
+	 * Depth-first : the top of the stack ; breadth-first : the first free slot of the queue
+	 */
+	protected int top;
+	protected int head;
+	/**
+	 * The slot of the current node, {@link AbstractTreeCursor#NOT_STARTED} or {@link AbstractTreeCursor#FINISHED}
+	 */
+	protected int current;
+	protected boolean skip;
+
+	protected AbstractTreeCursor(Order order) {
+		this.order = order;
+		this.slotData = new int[INITIAL_CAPACITY];
+		this.current = NOT_STARTED;
+	}
+
+	//++++++++++++Slot storage
+
+	/**
+	 * @return the capacity of the slot storage	:	{@code int}
+	 */
+	protected abstract int capacity();
+
+	/**
+	 * Grows the slot storage to at least {@code capacity} slots
+	 */
+	protected abstract void grow(int capacity);
+
+	/**
+	 * @return the amount of childs of the node in {@code slot}	:	{@code int}
+	 */
+	protected abstract int childCount(int slot);
+
+	/**
+	 * Stores the child at position {@code child} of the node in {@code parentSlot} into {@code targetSlot}
+	 *
+	 * @return {@code false} if there is no node at that position	:	{@code boolean}
+	 */
+	protected abstract boolean loadChild(int parentSlot, int child, int targetSlot);
+
+	protected abstract void moveSlot(int from, int to);
+
+	/**
+	 * Releases the node stored in {@code slot}
+	 */
+	protected abstract void clearSlot(int slot);
+
+	/**
+	 * Stores the root of the traversal in slot {@code 0}
+	 *
+	 * @return {@code false} if there is no root	:	{@code boolean}
+	 */
+	protected abstract boolean loadRoot();
+
+	//------------Slot storage
+
+	/**
+	 * Moves to the next node
+	 *
+	 * @return {@code false} if there are no more nodes	:	{@code boolean}
+	 */
+	public boolean next() {
+		if (this.current == FINISHED) {
+			return false;
+		}
+		boolean hasNext;
+		switch (this.order) {
+			case PRE_ORDER: hasNext = nextPreOrder(); break;
+			case POST_ORDER: hasNext = nextPostOrder(); break;
+			default: hasNext = nextBreadthFirst(); break;
+		}
+		this.skip = false;
+		if (!hasNext) {
+			this.current = FINISHED;
+		}
+		return hasNext;
+	}
+
+	/**
+	 * Don't visit the nodes below the current one, not supported in post-order since they were already visited
+	 *
+	 * @throws IllegalStateException if the order is post-order or there is no current node
+	 */
+	public void skipSubtree() {
+		checkCurrent();
+		if (this.order == Order.POST_ORDER) {
+			throw new IllegalStateException("jade.tree.AbstractTreeCursor#skipSubtree : the subtree was already visited in post-order");
+		}
+		this.skip = true;
+	}
+
+	/**
+	 * @return the depth of the current node, the root has depth {@code 0}	:	{@code int}
+	 */
+	public int depth() {
+		checkCurrent();
+		return this.order == Order.BREADTH_FIRST?this.slotData[this.current]:this.current;
+	}
+
+	/**
+	 * @return the position of the current node in the childs of its parent, {@code -1} for the root	:	{@code int}
+	 * @throws UnsupportedOperationException if the order is breadth-first
+	 */
+	public int childPosition() {
+		int parent = parentSlot();
+		return parent < 0?-1:this.slotData[parent] - 1;
+	}
+
+	public Order getOrder() {
+		return this.order;
+	}
+
+	/**
+	 * @return the slot of the parent of the current node, {@code -1} for the root	:	{@code int}
+	 * @throws UnsupportedOperationException if the order is breadth-first
+	 */
+	protected int parentSlot() {
+		checkCurrent();
+		if (this.order == Order.BREADTH_FIRST) {
+			throw new UnsupportedOperationException("jade.tree.AbstractTreeCursor#parentSlot : parents are not kept in breadth-first order");
+		}
+		return this.current - 1;
+	}
+
+	/**
+	 * @throws NoSuchElementException if {@link AbstractTreeCursor#next()} was not called or returned {@code false}
+	 */
+	protected void checkCurrent() {
+		if (this.current < 0) {
+			throw new NoSuchElementException("jade.tree.AbstractTreeCursor : no current node");
+		}
+	}
+
+	private boolean start() {
+		ensureCapacity(1);
+		if (!loadRoot()) {
+			return false;
+		}
+		this.slotData[0] = 0;
+		this.top = 0;
+		this.head = 0;
+		return true;
+	}
+
+	private boolean nextPreOrder() {
+		if (this.current == NOT_STARTED) {
+			if (!start()) {
+				return false;
+			}
+			this.current = 0;
+			return true;
+		}
+		if (this.skip) {
+			this.slotData[this.top] = childCount(this.top);
+		}
+		while (this.top >= 0) {
+			if (this.slotData[this.top] < childCount(this.top)) {
+				int child = this.slotData[this.top]++;
+				ensureCapacity(this.top + 2);
+				if (loadChild(this.top, child, this.top + 1)) {
+					this.top++;
+					this.slotData[this.top] = 0;
+					this.current = this.top;
+					return true;
+				}
+			} else {
+				clearSlot(this.top);
+				this.top--;
+			}
+		}
+		return false;
+	}
+
+	private boolean nextPostOrder() {
+		if (this.current == NOT_STARTED) {
+			if (!start()) {
+				return false;
+			}
+		} else {
+			clearSlot(this.top);
+			this.top--;
+		}
+		while (this.top >= 0) {
+			if (this.slotData[this.top] < childCount(this.top)) {
+				int child = this.slotData[this.top]++;
+				ensureCapacity(this.top + 2);
+				if (loadChild(this.top, child, this.top + 1)) {
+					this.top++;
+					this.slotData[this.top] = 0;
+				}
+			} else {
+				this.current = this.top;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean nextBreadthFirst() {
+		if (this.current == NOT_STARTED) {
+			if (!start()) {
+				return false;
+			}
+			this.top = 1;
+		} else {
+			if (!this.skip) {
+				int childCount = childCount(this.current);
+				int childDepth = this.slotData[this.current] + 1;
+				for (int child = 0; child < childCount; child++) {
+					ensureCapacity(this.top + 1);
+					if (loadChild(this.current, child, this.top)) {
+						this.slotData[this.top++] = childDepth;
+					}
+				}
+			}
+			clearSlot(this.current);
+		}
+		if (this.head == this.top) {
+			return false;
+		}
+		this.current = this.head++;
+		return true;
+	}
+
+	/**
+	 * Makes room for {@code slots} slots, for breadth-first the already visited slots are reused first
+	 */
+	private void ensureCapacity(int slots) {
+		if (slots <= capacity()) {
+			return;
+		}
+		if (this.order == Order.BREADTH_FIRST && this.head > 0 && this.head >= this.top / 2) {
+			int first = this.current == this.head - 1?this.current:this.head;
+			for (int slot = first; slot < this.top; slot++) {
+				moveSlot(slot, slot - first);
+				this.slotData[slot - first] = this.slotData[slot];
+			}
+			this.top -= first;
+			this.head -= first;
+			this.current -= first;
+			if (slots - first <= capacity()) {
+				return;
+			}
+			slots -= first;
+		}
+		int newCapacity = Math.max(capacity() * 2, slots);
+		grow(newCapacity);
+		if (this.slotData.length < newCapacity) {
+			this.slotData = Arrays.copyOf(this.slotData, newCapacity);
+		}
+	}
+
+}
@@ -68,5 +68,25 @@ public class AccessTree extends Tree {
 	}
 	
 	//------------Getters
+	
+	@Override
+	protected int payloadHash() {
+		return this.hasFrom?1:0;
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		return this.hasFrom == ((AccessTree) other).hasFrom;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitAccess(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.ACCESS;
+	}
 
 }
@@ -0,0 +1,97 @@
+package jade.tree;
+
+import java.util.Arrays;
+
+/**
+ * Iterative cursor over a node of a {@link TreeArena} and its descendants, missing childs are not visited
+ * <p>
+ * Nodes are returned as arena indexes, so the traversal doesn't create views; use
+ * {@link TreeArena#node(int)} to get one.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ArenaCursor extends AbstractTreeCursor {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	protected final TreeArena arena;
+	protected final int root;
+	protected int[] nodes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param arena	:	the arena containing the nodes	:	{@code TreeArena}
+	 * @param root	:	the index of the first node of the traversal	:	{@code int}
+	 * @param order	:	the order in which nodes are visited	:	{@code AbstractTreeCursor.Order}
+	 */
+	public ArenaCursor(TreeArena arena, int root, Order order) {
+		super(order);
+		if (root < 0 || root >= arena.size()) {
+			throw new IndexOutOfBoundsException("jade.tree.TreeArena#size : " + arena.size() + " ; Node : " + root);
+		}
+		this.arena = arena;
+		this.root = root;
+		this.nodes = new int[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * @return the index of the current node	:	{@code int}
+	 * @throws java.util.NoSuchElementException if {@link AbstractTreeCursor#next()} was not called or returned {@code false}
+	 */
+	public int current() {
+		checkCurrent();
+		return this.nodes[this.current];
+	}
+
+	public TreeArena getArena() {
+		return this.arena;
+	}
+
+	/**
+	 * @return the index of the parent of the current node in the traversal, {@code -1} for the root	:	{@code int}
+	 * @throws UnsupportedOperationException if the order is breadth-first
+	 */
+	public int parent() {
+		int parent = parentSlot();
+		return parent < 0?-1:this.nodes[parent];
+	}
+
+	@Override
+	protected int capacity() {
+		return this.nodes.length;
+	}
+
+	@Override
+	protected void grow(int capacity) {
+		this.nodes = Arrays.copyOf(this.nodes, capacity);
+	}
+
+	@Override
+	protected int childCount(int slot) {
+		return this.arena.childCount[this.nodes[slot]];
+	}
+
+	@Override
+	protected boolean loadChild(int parentSlot, int child, int targetSlot) {
+		int node = this.arena.children[this.arena.childStart[this.nodes[parentSlot]] + child];
+		this.nodes[targetSlot] = node;
+		return node >= 0;
+	}
+
+	@Override
+	protected void moveSlot(int from, int to) {
+		this.nodes[to] = this.nodes[from];
+	}
+
+	@Override
+	protected void clearSlot(int slot) {}
+
+	@Override
+	protected boolean loadRoot() {
+		this.nodes[0] = this.root;
+		return true;
+	}
+
+}
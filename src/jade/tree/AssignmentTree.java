@@ -18,8 +18,19 @@ public class AssignmentTree extends StatementTree {
 	
 	//+++++++++++Constructors
 	
+	/**
+	 * Constructor
+	 * <p>
+	 * The constant subexpressions of {@code expression} are folded (see {@link ExpressionEvaluator#fold(ExpressionTree)}),
+	 * so they are evaluated once when building the assignment instead of each time it's applied. {@code expression}
+	 * is not modified, if anything is folded the assignment holds a folded copy.
+	 * 
+	 * @param parent		:	the parent (if any) of this assignment	:	{@code Tree}
+	 * @param identifier	:	the assigned identifier	:	{@code IdentifierTree}
+	 * @param expression	:	the assigned expression	:	{@code ExpressionTree}
+	 */
 	public AssignmentTree(Tree parent, IdentifierTree identifier, ExpressionTree expression) {
-		this(parent, new Tree[]{identifier, expression});
+		this(parent, new Tree[]{identifier, ExpressionEvaluator.fold(expression)});
 	}
 	
 	public AssignmentTree(IdentifierTree identifier, ExpressionTree expression) {
@@ -39,5 +50,15 @@ public class AssignmentTree extends StatementTree {
 	}
 	
 	//-----------Getters
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitAssignment(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.ASSIGNMENT;
+	}
 
 }
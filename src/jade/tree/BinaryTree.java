@@ -0,0 +1,88 @@
+package jade.tree;
+
+import jade.exceptions.ASTInternalException;
+
+/**
+ * Represents a binary expression : {@link ExpressionTree} {@link BinaryTree.Operator} {@link ExpressionTree}
+ * 
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ * @see ExpressionTree
+ */
+public class BinaryTree extends ExpressionTree {
+	
+	/**
+	 * The operators of binary expressions, with the semantics of the Java operator with the same symbol
+	 */
+	public static enum Operator {
+		TIMES("*"), DIVIDE("/"), REMAINDER("%"),
+		PLUS("+"), MINUS("-"),
+		SHIFT_LEFT("<<"), SHIFT_RIGHT(">>"), UNSIGNED_SHIFT_RIGHT(">>>"),
+		LESS("<"), LESS_EQUAL("<="), GREATER(">"), GREATER_EQUAL(">="),
+		EQUAL("=="), NOT_EQUAL("!="),
+		AND("&"), XOR("^"), OR("|"),
+		CONDITIONAL_AND("&&"), CONDITIONAL_OR("||");
+		
+		private final String symbol;
+		
+		private Operator(String symbol) {
+			this.symbol = symbol;
+		}
+		
+		public String getSymbol() {
+			return this.symbol;
+		}
+	};
+	
+	protected Operator operator;
+
+	protected BinaryTree(Tree parent, Tree[] childs) {
+		super(parent, childs);
+		this.type = Type.BINARY;
+	}
+	
+	//+++++++++++Constructors
+	
+	public BinaryTree(Tree parent, ExpressionTree left, Operator operator, ExpressionTree right) {
+		this(parent, new Tree[]{left, right});
+		this.operator = operator;
+	}
+	
+	public BinaryTree(ExpressionTree left, Operator operator, ExpressionTree right) {
+		this(null, left, operator, right);
+	}
+	
+	//-----------Constructors
+	
+	//+++++++++++Getters
+	
+	public Operator getOperator() {
+		return this.operator;
+	}
+	
+	public ExpressionTree getLeftOperand() throws ASTInternalException {
+		return (ExpressionTree) getChild(0);
+	}
+	
+	public ExpressionTree getRightOperand() throws ASTInternalException {
+		return (ExpressionTree) getChild(1);
+	}
+	
+	//-----------Getters
+	
+	@Override
+	protected int payloadHash() {
+		return super.payloadHash() * 31 + this.operator.ordinal();
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		return super.payloadEquals(other) && this.operator == ((BinaryTree) other).operator;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitBinary(this, p);
+	}
+
+}
@@ -1,5 +1,7 @@
 package jade.tree;
 
+import java.util.List;
+
 import jade.exceptions.ASTInternalException;
 
 /**
@@ -10,13 +12,40 @@ import jade.exceptions.ASTInternalException;
  * @see StatementTree
  */
 public class BlockTree extends StatementTree {
+	
+	/**
+	 * The view returned by {@link BlockTree#getStatements()}, created on first use
+	 */
+	protected ChildRange<StatementTree> statements = null;
 
 	public BlockTree(Tree parent, StatementTree[] childs) {
 		super(parent, childs);
 	}
 	
-	public StatementTree[] getStatements() throws ASTInternalException {
-		return (StatementTree[]) getChilds(0, this.childs.length - 1);
+	/**
+	 * @return a read only view of the statements of this block	:	{@code List<StatementTree>}
+	 * @throws ASTInternalException
+	 */
+	public List<StatementTree> getStatements() throws ASTInternalException {
+		if (this.statements == null) {
+			this.statements = getChildRange(0, this.childs.length - 1);
+		}
+		return this.statements;
+	}
+	
+	@Override
+	protected void clearViews() {
+		this.statements = null;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitBlock(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.BLOCK;
 	}
 
 }
@@ -1,6 +1,5 @@
 package jade.tree;
 
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -16,6 +15,11 @@ import java.util.List;
  */
 public class BoundsTree extends Tree {
 	
+	/**
+	 * The view returned by {@link BoundsTree#getBoundsAsList()}, created on first use
+	 */
+	protected ChildRange<TypeTree> bounds = null;
+	
 	public BoundsTree(Tree parent, TypeTree[] types) {
 		super(parent, types);
 	}
@@ -36,19 +40,36 @@ public class BoundsTree extends Tree {
 		this(null, types);
 	}
 	
+	/**
+	 * @return a read only view of the bounds or {@code null} if there are none	:	{@code List<TypeTree>}
+	 */
 	public List<TypeTree> getBoundsAsList() {
 		if (this.childs == null) {
 			return null;
 		}
-		List<TypeTree> bounds = new LinkedList<TypeTree>();
-		for (Tree tree : this.childs) {
-			bounds.add((TypeTree)tree);
+		if (this.bounds == null) {
+			this.bounds = new ChildRange<TypeTree>(this, 0, this.childs.length);
 		}
-		return bounds;
+		return this.bounds;
 	}
 	
 	public TypeTree[] getBoundsAsArray() {
 		return (TypeTree[]) this.childs;
 	}
+	
+	@Override
+	protected void clearViews() {
+		this.bounds = null;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitBounds(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.BOUNDS;
+	}
 
 }
@@ -0,0 +1,50 @@
+package jade.tree;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A read only view of a range of the childs of a {@link Tree}
+ * <p>
+ * The view reads the childs array of its owner directly, so creating it doesn't copy anything and a child
+ * replaced in the owner is seen by the view. Nodes cache the views returned by their accessors, so iterating
+ * over the statements of a block or the type parameters of a type doesn't allocate per access.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ * @param <T> the class of the childs in the range
+ */
+public class ChildRange<T extends Tree> extends AbstractList<T> implements RandomAccess {
+
+	protected final Tree owner;
+	protected final int start;
+	protected final int size;
+
+	/**
+	 * Constructor
+	 *
+	 * @param owner	:	the tree owning the childs	:	{@code Tree}
+	 * @param start	:	the position of the first child in the range	:	{@code int}
+	 * @param size	:	the amount of childs in the range	:	{@code int}
+	 */
+	protected ChildRange(Tree owner, int start, int size) {
+		this.owner = owner;
+		this.start = start;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("jade.tree.ChildRange#size : " + this.size + " ; Index : " + index);
+		}
+		return (T) this.owner.childs[this.start + index];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+}
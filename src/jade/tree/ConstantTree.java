@@ -0,0 +1,130 @@
+package jade.tree;
+
+/**
+ * Represents a constant of one of the primitive {@link ExpressionTree.ValueType}s
+ * <p>
+ * The value is kept unboxed: {@code int}, {@code long} and {@code boolean} constants in a {@code long}
+ * ({@code boolean} as {@code 0} or {@code 1}) and {@code double} constants in a {@code double}.
+ * 
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ConstantTree extends ExpressionTree {
+	
+	protected ValueType valueType;
+	protected long longValue;
+	protected double doubleValue;
+	
+	protected ConstantTree(Tree parent, ValueType valueType, long longValue, double doubleValue) {
+		super(parent, null);
+		this.type = Type.CONSTANT;
+		this.valueType = valueType;
+		this.longValue = longValue;
+		this.doubleValue = doubleValue;
+	}
+	
+	//+++++++++++Constructors
+	
+	public ConstantTree(Tree parent, int value) {
+		this(parent, ValueType.INT, value, 0);
+	}
+	
+	public ConstantTree(int value) {
+		this(null, value);
+	}
+	
+	public ConstantTree(Tree parent, long value) {
+		this(parent, ValueType.LONG, value, 0);
+	}
+	
+	public ConstantTree(long value) {
+		this(null, value);
+	}
+	
+	public ConstantTree(Tree parent, double value) {
+		this(parent, ValueType.DOUBLE, 0, value);
+	}
+	
+	public ConstantTree(double value) {
+		this(null, value);
+	}
+	
+	public ConstantTree(Tree parent, boolean value) {
+		this(parent, ValueType.BOOLEAN, value?1:0, 0);
+	}
+	
+	public ConstantTree(boolean value) {
+		this(null, value);
+	}
+	
+	//-----------Constructors
+	
+	//+++++++++++Getters
+	
+	public ValueType getValueType() {
+		return this.valueType;
+	}
+	
+	/**
+	 * @return the value of an {@code int} constant, the truncated value for other numeric types	:	{@code int}
+	 */
+	public int getIntValue() {
+		return this.valueType == ValueType.DOUBLE?(int) this.doubleValue:(int) this.longValue;
+	}
+	
+	/**
+	 * @return the value of an {@code int} or {@code long} constant, the truncated value for a {@code double}	:	{@code long}
+	 */
+	public long getLongValue() {
+		return this.valueType == ValueType.DOUBLE?(long) this.doubleValue:this.longValue;
+	}
+	
+	/**
+	 * @return the value of a numeric constant widened to {@code double}	:	{@code double}
+	 */
+	public double getDoubleValue() {
+		return this.valueType == ValueType.DOUBLE?this.doubleValue:this.longValue;
+	}
+	
+	/**
+	 * @return the value of a {@code boolean} constant, {@code true} for non zero numeric constants	:	{@code boolean}
+	 */
+	public boolean getBooleanValue() {
+		return this.valueType == ValueType.DOUBLE?this.doubleValue != 0:this.longValue != 0;
+	}
+	
+	/**
+	 * @return the boxed value of this constant	:	{@code Object}
+	 */
+	public Object getValue() {
+		switch (this.valueType) {
+			case INT: return Integer.valueOf((int) this.longValue);
+			case LONG: return Long.valueOf(this.longValue);
+			case DOUBLE: return Double.valueOf(this.doubleValue);
+			default: return Boolean.valueOf(this.longValue != 0);
+		}
+	}
+	
+	//-----------Getters
+	
+	@Override
+	protected int payloadHash() {
+		long bits = this.valueType == ValueType.DOUBLE?Double.doubleToLongBits(this.doubleValue):this.longValue;
+		return (super.payloadHash() * 31 + this.valueType.ordinal()) * 31 + (int) (bits ^ (bits >>> 32));
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		if (!super.payloadEquals(other)) {
+			return false;
+		}
+		ConstantTree otherConstant = (ConstantTree) other;
+		return this.valueType == otherConstant.valueType && this.longValue == otherConstant.longValue && Double.doubleToLongBits(this.doubleValue) == Double.doubleToLongBits(otherConstant.doubleValue);
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitConstant(this, p);
+	}
+
+}
@@ -0,0 +1,419 @@
+package jade.tree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import jade.exceptions.ASTInternalException;
+import jade.tree.ExpressionTree.ValueType;
+
+/**
+ * Evaluates JADE expressions and folds their constant subexpressions
+ * <p>
+ * Values are kept unboxed while evaluating: {@code int}, {@code long} and {@code boolean} values in a {@code long}
+ * and {@code double} values in a {@code double}, with the type alongside, so evaluating an expression doesn't
+ * allocate. Operators have the semantics of the Java operators with the same symbol, including binary numeric
+ * promotion, {@code int} overflow and short-circuit evaluation of {@code &&} and {@code ||}.
+ * <p>
+ * An evaluator reuses its working value between evaluations, so it must not be shared between threads.
+ * Evaluation is recursive; {@link ExpressionEvaluator#fold(ExpressionTree)} is not.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ExpressionEvaluator {
+
+	/**
+	 * The values of the identifiers used by an expression, stored unboxed
+	 */
+	public static class Bindings {
+
+		private static final int INITIAL_CAPACITY = 8;
+
+		protected Map<String, Integer> slots;
+		protected ValueType[] types;
+		protected long[] longValues;
+		protected double[] doubleValues;
+
+		public Bindings() {
+			this.slots = new HashMap<String, Integer>();
+			this.types = new ValueType[INITIAL_CAPACITY];
+			this.longValues = new long[INITIAL_CAPACITY];
+			this.doubleValues = new double[INITIAL_CAPACITY];
+		}
+
+		public void setInt(String name, int value) {
+			set(name, ValueType.INT, value, 0);
+		}
+
+		public void setLong(String name, long value) {
+			set(name, ValueType.LONG, value, 0);
+		}
+
+		public void setDouble(String name, double value) {
+			set(name, ValueType.DOUBLE, 0, value);
+		}
+
+		public void setBoolean(String name, boolean value) {
+			set(name, ValueType.BOOLEAN, value?1:0, 0);
+		}
+
+		/**
+		 * @return the type of the value bound to {@code name} or {@code null} if {@code name} is not bound	:	{@code ExpressionTree.ValueType}
+		 */
+		public ValueType getType(String name) {
+			Integer slot = this.slots.get(name);
+			return slot == null?null:this.types[slot];
+		}
+
+		public boolean isBound(String name) {
+			return this.slots.containsKey(name);
+		}
+
+		public int size() {
+			return this.slots.size();
+		}
+
+		public void clear() {
+			this.slots.clear();
+		}
+
+		private void set(String name, ValueType type, long longValue, double doubleValue) {
+			Integer slot = this.slots.get(name);
+			if (slot == null) {
+				slot = this.slots.size();
+				if (slot == this.types.length) {
+					this.types = Arrays.copyOf(this.types, slot * 2);
+					this.longValues = Arrays.copyOf(this.longValues, slot * 2);
+					this.doubleValues = Arrays.copyOf(this.doubleValues, slot * 2);
+				}
+				this.slots.put(name, slot);
+			}
+			this.types[slot] = type;
+			this.longValues[slot] = longValue;
+			this.doubleValues[slot] = doubleValue;
+		}
+
+	}
+
+	/**
+	 * The working value, {@code int} values are kept sign extended
+	 */
+	private ValueType type;
+	private long longValue;
+	private double doubleValue;
+
+	//++++++++++++Evaluation
+
+	/**
+	 * @param expression	:	the expression to evaluate	:	{@code ExpressionTree}
+	 * @param bindings		:	the values of the identifiers, may be {@code null} if the expression has none	:	{@code ExpressionEvaluator.Bindings}
+	 * @return the value of an {@code int} expression	:	{@code int}
+	 * @throws ASTInternalException if the expression is not an {@code int} expression or can't be evaluated
+	 */
+	public int evaluateInt(ExpressionTree expression, Bindings bindings) throws ASTInternalException {
+		evaluate("jade.tree.ExpressionEvaluator#evaluateInt", expression, bindings);
+		expectResult("jade.tree.ExpressionEvaluator#evaluateInt", this.type == ValueType.INT, ValueType.INT);
+		return (int) this.longValue;
+	}
+
+	/**
+	 * @return the value of an {@code int} or {@code long} expression	:	{@code long}
+	 * @throws ASTInternalException if the expression is not an {@code int} or {@code long} expression or can't be evaluated
+	 */
+	public long evaluateLong(ExpressionTree expression, Bindings bindings) throws ASTInternalException {
+		evaluate("jade.tree.ExpressionEvaluator#evaluateLong", expression, bindings);
+		expectResult("jade.tree.ExpressionEvaluator#evaluateLong", isIntegral(this.type), ValueType.LONG);
+		return this.longValue;
+	}
+
+	/**
+	 * @return the value of a numeric expression widened to {@code double}	:	{@code double}
+	 * @throws ASTInternalException if the expression is not numeric or can't be evaluated
+	 */
+	public double evaluateDouble(ExpressionTree expression, Bindings bindings) throws ASTInternalException {
+		evaluate("jade.tree.ExpressionEvaluator#evaluateDouble", expression, bindings);
+		expectResult("jade.tree.ExpressionEvaluator#evaluateDouble", this.type != ValueType.BOOLEAN, ValueType.DOUBLE);
+		return this.type == ValueType.DOUBLE?this.doubleValue:this.longValue;
+	}
+
+	/**
+	 * @return the value of a {@code boolean} expression	:	{@code boolean}
+	 * @throws ASTInternalException if the expression is not a {@code boolean} expression or can't be evaluated
+	 */
+	public boolean evaluateBoolean(ExpressionTree expression, Bindings bindings) throws ASTInternalException {
+		evaluate("jade.tree.ExpressionEvaluator#evaluateBoolean", expression, bindings);
+		expectResult("jade.tree.ExpressionEvaluator#evaluateBoolean", this.type == ValueType.BOOLEAN, ValueType.BOOLEAN);
+		return this.longValue != 0;
+	}
+
+	/**
+	 * @return the boxed value of the expression	:	{@code Object}
+	 * @throws ASTInternalException if the expression can't be evaluated
+	 */
+	public Object evaluate(ExpressionTree expression, Bindings bindings) throws ASTInternalException {
+		evaluate("jade.tree.ExpressionEvaluator#evaluate", expression, bindings);
+		return toConstant().getValue();
+	}
+
+	//------------Evaluation
+
+	//++++++++++++Folding
+
+	/**
+	 * Replaces every unary and binary subexpression whose operands are constants by its value, subexpressions
+	 * that can't be evaluated (like a division by zero) are kept so the error shows up when they are evaluated
+	 * <p>
+	 * {@code expression} is never modified: if it has a constant subexpression the folding is done on a copy
+	 * (see {@link Tree#clone()}), otherwise {@code expression} itself is returned. Both trees are traversed
+	 * without recursion.
+	 *
+	 * @param expression	:	the expression to fold	:	{@code ExpressionTree}
+	 * @return the folded expression, a new {@link ConstantTree} if the whole expression is constant	:	{@code ExpressionTree}
+	 */
+	public static ExpressionTree fold(ExpressionTree expression) {
+		if (expression == null || !hasConstantSubexpression(expression)) {
+			return expression;
+		}
+		ExpressionEvaluator evaluator = new ExpressionEvaluator();
+		ExpressionTree result = (ExpressionTree) expression.clone();
+		TreeCursor cursor = TreeCursor.postOrder(result);
+		while (cursor.next()) {
+			Tree node = cursor.current();
+			if (node.getKind() != Tree.Kind.EXPRESSION || !hasConstantOperands((ExpressionTree) node)) {
+				continue;
+			}
+			try {
+				evaluator.evaluate("jade.tree.ExpressionEvaluator#fold", (ExpressionTree) node, null);
+			} catch (ASTInternalException e) {
+				continue;
+			}
+			Tree parent = cursor.parent();
+			ConstantTree constant = evaluator.toConstant();
+			if (parent == null) {
+				result = constant;
+			} else {
+				try {
+					parent.setChild(constant, cursor.childPosition());
+				} catch (ASTInternalException e) {
+					throw new IllegalStateException("jade.tree.ExpressionEvaluator#fold", e);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static boolean hasConstantSubexpression(ExpressionTree expression) {
+		TreeCursor cursor = TreeCursor.preOrder(expression);
+		while (cursor.next()) {
+			Tree node = cursor.current();
+			if (node.getKind() == Tree.Kind.EXPRESSION && hasConstantOperands((ExpressionTree) node)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasConstantOperands(ExpressionTree expression) {
+		if (!expression.isUnary() && !expression.isBinary()) {
+			return false;
+		}
+		for (Tree operand : expression.childs) {
+			if (operand == null || operand.getKind() != Tree.Kind.EXPRESSION || !((ExpressionTree) operand).isConstant()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//------------Folding
+
+	private void evaluate(String caller, ExpressionTree expression, Bindings bindings) throws ASTInternalException {
+		if (expression == null) {
+			throw new ASTInternalException(caller, new NullPointerException("null expression"));
+		}
+		switch (expression.type) {
+			case CONSTANT: {
+				ConstantTree constant = (ConstantTree) expression;
+				set(constant.valueType, constant.longValue, constant.doubleValue);
+				break;
+			}
+			case IDENTIFIER: {
+				String name = ((IdentifierExpressionTree) expression).getName();
+				Integer slot = bindings == null?null:bindings.slots.get(name);
+				if (slot == null) {
+					throw new ASTInternalException(caller, new IllegalArgumentException("unbound identifier " + name));
+				}
+				set(bindings.types[slot], bindings.longValues[slot], bindings.doubleValues[slot]);
+				break;
+			}
+			case UNARY: {
+				UnaryTree unary = (UnaryTree) expression;
+				evaluate(caller, (ExpressionTree) unary.childs[0], bindings);
+				unary(caller, unary.operator);
+				break;
+			}
+			case BINARY: {
+				BinaryTree binary = (BinaryTree) expression;
+				BinaryTree.Operator operator = binary.operator;
+				evaluate(caller, (ExpressionTree) binary.childs[0], bindings);
+				if (operator == BinaryTree.Operator.CONDITIONAL_AND || operator == BinaryTree.Operator.CONDITIONAL_OR) {
+					checkOperand(caller, operator.getSymbol(), this.type == ValueType.BOOLEAN);
+					if ((this.longValue != 0) == (operator == BinaryTree.Operator.CONDITIONAL_OR)) {
+						break;
+					}
+					evaluate(caller, (ExpressionTree) binary.childs[1], bindings);
+					checkOperand(caller, operator.getSymbol(), this.type == ValueType.BOOLEAN);
+					break;
+				}
+				ValueType leftType = this.type;
+				long leftLong = this.longValue;
+				double leftDouble = this.doubleValue;
+				evaluate(caller, (ExpressionTree) binary.childs[1], bindings);
+				binary(caller, operator, leftType, leftLong, leftDouble);
+				break;
+			}
+			default: throw new ASTInternalException(caller, new IllegalStateException("This instance was not created using a public constructor. The current state is not legal"));
+		}
+	}
+
+	private void unary(String caller, UnaryTree.Operator operator) throws ASTInternalException {
+		switch (operator) {
+			case NEGATE: {
+				checkOperand(caller, operator.getSymbol(), this.type != ValueType.BOOLEAN);
+				if (this.type == ValueType.DOUBLE) {
+					this.doubleValue = -this.doubleValue;
+				} else {
+					this.longValue = this.type == ValueType.INT?-(int) this.longValue:-this.longValue;
+				}
+				break;
+			}
+			case NOT: {
+				checkOperand(caller, operator.getSymbol(), this.type == ValueType.BOOLEAN);
+				this.longValue ^= 1;
+				break;
+			}
+			default: {
+				checkOperand(caller, operator.getSymbol(), isIntegral(this.type));
+				this.longValue = ~this.longValue;
+				break;
+			}
+		}
+	}
+
+	private void binary(String caller, BinaryTree.Operator operator, ValueType leftType, long left, double leftDouble) throws ASTInternalException {
+		ValueType rightType = this.type;
+		long right = this.longValue;
+		switch (operator) {
+			case SHIFT_LEFT:
+			case SHIFT_RIGHT:
+			case UNSIGNED_SHIFT_RIGHT: {
+				checkOperand(caller, operator.getSymbol(), isIntegral(leftType) && isIntegral(rightType));
+				if (leftType == ValueType.INT) {
+					int value = (int) left;
+					int distance = (int) right;
+					set(ValueType.INT, operator == BinaryTree.Operator.SHIFT_LEFT?value << distance:operator == BinaryTree.Operator.SHIFT_RIGHT?value >> distance:value >>> distance, 0);
+				} else {
+					set(ValueType.LONG, operator == BinaryTree.Operator.SHIFT_LEFT?left << right:operator == BinaryTree.Operator.SHIFT_RIGHT?left >> right:left >>> right, 0);
+				}
+				return;
+			}
+			case AND:
+			case XOR:
+			case OR: {
+				boolean logical = leftType == ValueType.BOOLEAN && rightType == ValueType.BOOLEAN;
+				checkOperand(caller, operator.getSymbol(), logical || (isIntegral(leftType) && isIntegral(rightType)));
+				long value = operator == BinaryTree.Operator.AND?left & right:operator == BinaryTree.Operator.XOR?left ^ right:left | right;
+				set(logical?ValueType.BOOLEAN:promote(leftType, rightType), value, 0);
+				return;
+			}
+			case EQUAL:
+			case NOT_EQUAL: {
+				boolean equal;
+				if (leftType == ValueType.BOOLEAN || rightType == ValueType.BOOLEAN) {
+					checkOperand(caller, operator.getSymbol(), leftType == rightType);
+					equal = left == right;
+				} else if (promote(leftType, rightType) == ValueType.DOUBLE) {
+					equal = toDouble(leftType, left, leftDouble) == toDouble(rightType, right, this.doubleValue);
+				} else {
+					equal = left == right;
+				}
+				set(ValueType.BOOLEAN, equal == (operator == BinaryTree.Operator.EQUAL)?1:0, 0);
+				return;
+			}
+			default: break;
+		}
+		checkOperand(caller, operator.getSymbol(), leftType != ValueType.BOOLEAN && rightType != ValueType.BOOLEAN);
+		ValueType promoted = promote(leftType, rightType);
+		if (promoted == ValueType.DOUBLE) {
+			double l = toDouble(leftType, left, leftDouble);
+			double r = toDouble(rightType, right, this.doubleValue);
+			switch (operator) {
+				case TIMES: set(ValueType.DOUBLE, 0, l * r); break;
+				case DIVIDE: set(ValueType.DOUBLE, 0, l / r); break;
+				case REMAINDER: set(ValueType.DOUBLE, 0, l % r); break;
+				case PLUS: set(ValueType.DOUBLE, 0, l + r); break;
+				case MINUS: set(ValueType.DOUBLE, 0, l - r); break;
+				case LESS: set(ValueType.BOOLEAN, l < r?1:0, 0); break;
+				case LESS_EQUAL: set(ValueType.BOOLEAN, l <= r?1:0, 0); break;
+				case GREATER: set(ValueType.BOOLEAN, l > r?1:0, 0); break;
+				default: set(ValueType.BOOLEAN, l >= r?1:0, 0); break;
+			}
+			return;
+		}
+		long value;
+		switch (operator) {
+			case TIMES: value = left * right; break;
+			case DIVIDE: checkDivisor(caller, right); value = left / right; break;
+			case REMAINDER: checkDivisor(caller, right); value = left % right; break;
+			case PLUS: value = left + right; break;
+			case MINUS: value = left - right; break;
+			case LESS: set(ValueType.BOOLEAN, left < right?1:0, 0); return;
+			case LESS_EQUAL: set(ValueType.BOOLEAN, left <= right?1:0, 0); return;
+			case GREATER: set(ValueType.BOOLEAN, left > right?1:0, 0); return;
+			default: set(ValueType.BOOLEAN, left >= right?1:0, 0); return;
+		}
+		set(promoted, promoted == ValueType.INT?(int) value:value, 0);
+	}
+
+	private void set(ValueType type, long longValue, double doubleValue) {
+		this.type = type;
+		this.longValue = longValue;
+		this.doubleValue = doubleValue;
+	}
+
+	private ConstantTree toConstant() {
+		return new ConstantTree(null, this.type, this.longValue, this.doubleValue);
+	}
+
+	private static ValueType promote(ValueType left, ValueType right) {
+		return left.ordinal() > right.ordinal()?left:right;
+	}
+
+	private static boolean isIntegral(ValueType type) {
+		return type == ValueType.INT || type == ValueType.LONG;
+	}
+
+	private static double toDouble(ValueType type, long longValue, double doubleValue) {
+		return type == ValueType.DOUBLE?doubleValue:longValue;
+	}
+
+	private static void checkOperand(String caller, String operator, boolean valid) throws ASTInternalException {
+		if (!valid) {
+			throw new ASTInternalException(caller, new IllegalArgumentException("bad operand types for " + operator));
+		}
+	}
+
+	private static void checkDivisor(String caller, long divisor) throws ASTInternalException {
+		if (divisor == 0) {
+			throw new ASTInternalException(caller, new ArithmeticException("/ by zero"));
+		}
+	}
+
+	private void expectResult(String caller, boolean valid, ValueType expected) throws ASTInternalException {
+		if (!valid) {
+			throw new ASTInternalException(caller, new IllegalArgumentException("Expecting " + expected + " expression but got " + this.type + " instead"));
+		}
+	}
+
+}
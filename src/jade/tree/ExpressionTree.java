@@ -7,13 +7,23 @@ package jade.tree;
  * <li>an identifier</li>
  * <li>an unary expression</li>
  * <li>a binary expression</li>
+ * <p>
+ * Expressions evaluate to one of the primitive {@link ExpressionTree.ValueType}s, see {@link ExpressionEvaluator}.
  * 
  * @author Simon Emmanuel Gutierrez Brida
  * @version 0.1u
+ * @see ConstantTree
+ * @see IdentifierExpressionTree
+ * @see UnaryTree
+ * @see BinaryTree
  * TODO: extend the current JADE language to support method calls (as an expression)
  */
 public abstract class ExpressionTree extends Tree {
 	protected static enum Type {CONSTANT, IDENTIFIER, UNARY, BINARY, INVALID};
+	/**
+	 * The types of the values of expressions, ordered by numeric promotion for {@code INT}, {@code LONG} and {@code DOUBLE}
+	 */
+	public static enum ValueType {INT, LONG, DOUBLE, BOOLEAN};
 
 	protected Type type = Type.INVALID;
 	
@@ -28,7 +38,7 @@ public abstract class ExpressionTree extends Tree {
 	}
 	
 	public boolean isIdentifier() {
-		return this.type.equals(Type.CONSTANT);
+		return this.type.equals(Type.IDENTIFIER);
 	}
 	
 	public boolean isUnary() {
@@ -44,5 +54,25 @@ public abstract class ExpressionTree extends Tree {
 	}
 	
 	//-------------Checkers
+	
+	@Override
+	protected int payloadHash() {
+		return this.type.ordinal();
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		return this.type == ((ExpressionTree) other).type;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitExpression(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.EXPRESSION;
+	}
 
 }
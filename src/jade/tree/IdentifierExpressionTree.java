@@ -0,0 +1,53 @@
+package jade.tree;
+
+import jade.exceptions.ASTInternalException;
+
+/**
+ * Represents the use of an identifier as an expression, its value is taken from the bindings the expression
+ * is evaluated with
+ * 
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ * @see IdentifierTree
+ * @see ExpressionEvaluator.Bindings
+ */
+public class IdentifierExpressionTree extends ExpressionTree {
+
+	protected IdentifierExpressionTree(Tree parent, Tree[] childs) {
+		super(parent, childs);
+		this.type = Type.IDENTIFIER;
+	}
+	
+	//+++++++++++Constructors
+	
+	public IdentifierExpressionTree(Tree parent, IdentifierTree identifier) {
+		this(parent, new Tree[]{identifier});
+	}
+	
+	public IdentifierExpressionTree(IdentifierTree identifier) {
+		this(null, identifier);
+	}
+	
+	//-----------Constructors
+	
+	//+++++++++++Getters
+	
+	public IdentifierTree getIdentifier() throws ASTInternalException {
+		return (IdentifierTree) getChild(0);
+	}
+	
+	/**
+	 * @return the name of the identifier	:	{@code String}
+	 */
+	public String getName() {
+		return ((IdentifierTree) this.childs[0]).name;
+	}
+	
+	//-----------Getters
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitIdentifierExpression(this, p);
+	}
+
+}
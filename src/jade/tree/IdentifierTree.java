@@ -47,23 +47,25 @@ public class IdentifierTree extends Tree {
 		return this.name;
 	}
 	
-	/**
-	 * On the contrary with the normal {code clone()} this one will keep the original IDs
-	 * 
-	 * @return a clone of this tree (including a clone of the parent and the childs) mantaining the original IDs
-	 */
-	public Tree clone_keeping_id() {
-		int current_id = Tree.CURRENT_ID; //store current value of Tree.CURRENT_ID
-		IdentifierTree identifierTreeClone = new IdentifierTree(this.parent.clone_keeping_id(), this.name);
-		Tree.CURRENT_ID = current_id; //old value of Tree.CURRENT_ID is restored
-		identifierTreeClone.id = this.id;
-		return identifierTreeClone;
+	@Override
+	protected int payloadHash() {
+		return this.name == null?0:this.name.hashCode();
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		String otherName = ((IdentifierTree) other).name;
+		return this.name == null?otherName == null:this.name.equals(otherName);
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitIdentifier(this, p);
 	}
 	
 	@Override
-	public Tree clone() {
-		IdentifierTree identifierTreeClone = new IdentifierTree(this.parent.clone(), this.name);
-		return identifierTreeClone;
+	public Kind getKind() {
+		return Kind.IDENTIFIER;
 	}
 
 }
@@ -0,0 +1,128 @@
+package jade.tree;
+
+/**
+ * A {@link JadeTreeVisitor} that visits every node of a tree, in the style of {@code com.sun.source.util.TreeScanner}
+ * <p>
+ * Every visit method scans the childs of the node in order and reduces their results with
+ * {@link JadeTreeScanner#reduce(Object, Object)}; subclasses override the methods of the nodes they are
+ * interested in and call {@code super} to keep scanning below them. The scan is recursive, use a
+ * {@link TreeCursor} for trees too deep for the call stack.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ * @param <R> the return type of the visitor methods
+ * @param <P> the type of the additional parameter of the visitor methods
+ */
+public class JadeTreeScanner<R, P> implements JadeTreeVisitor<R, P> {
+
+	/**
+	 * @param node	:	the node to visit, may be {@code null}	:	{@code Tree}
+	 * @param p		:	the additional parameter	:	{@code P}
+	 * @return the result of visiting {@code node}, {@code null} if {@code node} is {@code null}	:	{@code R}
+	 */
+	public R scan(Tree node, P p) {
+		return node == null?null:node.accept(this, p);
+	}
+
+	/**
+	 * Scans the nodes in order, reducing their results
+	 */
+	public R scan(Iterable<? extends Tree> nodes, P p) {
+		R result = null;
+		if (nodes != null) {
+			boolean first = true;
+			for (Tree node : nodes) {
+				result = first?scan(node, p):reduce(scan(node, p), result);
+				first = false;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Scans the childs of {@code node} in order, reducing their results
+	 */
+	protected R scanChilds(Tree node, P p) {
+		Tree[] childs = node.childs;
+		R result = null;
+		if (childs != null) {
+			for (int c = 0; c < childs.length; c++) {
+				result = c == 0?scan(childs[c], p):reduce(scan(childs[c], p), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Combines the results of two scans, returns {@code r1} by default
+	 */
+	public R reduce(R r1, R r2) {
+		return r1;
+	}
+
+	@Override
+	public R visitType(TypeTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitIdentifier(IdentifierTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitVariable(VariableTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitAssignment(AssignmentTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitBlock(BlockTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitAccess(AccessTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitBounds(BoundsTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitConstant(ConstantTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitIdentifierExpression(IdentifierExpressionTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitUnary(UnaryTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitBinary(BinaryTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitExpression(ExpressionTree node, P p) {
+		return scanChilds(node, p);
+	}
+
+	@Override
+	public R visitOther(Tree node, P p) {
+		return scanChilds(node, p);
+	}
+
+}
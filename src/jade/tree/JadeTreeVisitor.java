@@ -0,0 +1,51 @@
+package jade.tree;
+
+/**
+ * A visitor of JADE tree nodes, in the style of {@code com.sun.source.tree.TreeVisitor}
+ * <p>
+ * Each node class implements {@link Tree#accept(JadeTreeVisitor, Object)} calling the method for its own
+ * class, so dispatching a node is a single virtual call instead of a chain of {@code instanceof} checks or
+ * a switch on {@link Tree#getKind()}. Nodes without a specific method are dispatched to
+ * {@link JadeTreeVisitor#visitOther(Tree, Object)}.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ * @param <R> the return type of the visitor methods
+ * @param <P> the type of the additional parameter of the visitor methods
+ * @see JadeTreeScanner
+ */
+public interface JadeTreeVisitor<R, P> {
+
+	R visitType(TypeTree node, P p);
+
+	R visitIdentifier(IdentifierTree node, P p);
+
+	R visitVariable(VariableTree node, P p);
+
+	R visitAssignment(AssignmentTree node, P p);
+
+	R visitBlock(BlockTree node, P p);
+
+	R visitAccess(AccessTree node, P p);
+
+	R visitBounds(BoundsTree node, P p);
+
+	R visitConstant(ConstantTree node, P p);
+
+	R visitIdentifierExpression(IdentifierExpressionTree node, P p);
+
+	R visitUnary(UnaryTree node, P p);
+
+	R visitBinary(BinaryTree node, P p);
+
+	/**
+	 * Visits an expression without a specific method
+	 */
+	R visitExpression(ExpressionTree node, P p);
+
+	/**
+	 * Visits a node without a specific method, like a plain {@link Tree}
+	 */
+	R visitOther(Tree node, P p);
+
+}
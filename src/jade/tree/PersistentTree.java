@@ -0,0 +1,431 @@
+package jade.tree;
+
+import java.util.Arrays;
+
+import jade.exceptions.ASTInternalException;
+
+/**
+ * An immutable JADE tree node
+ * <p>
+ * Persistent trees have no parent pointers, so a subtree can be shared by any number of trees. Modifying a
+ * node ({@link PersistentTree#withChild(int, PersistentTree)}, {@link PersistentTree#replace(int[], PersistentTree)})
+ * returns a new tree that copies only the nodes on the path from the root to the modified node and shares
+ * every other subtree, so each edit costs {@code O(depth)} instead of {@code O(size)}.
+ * <p>
+ * Since nodes can't change, the structural hash is computed once on creation and {@code equals} and
+ * {@code hashCode} are structural.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public final class PersistentTree {
+
+	private static final PersistentTree[] NO_CHILDS = new PersistentTree[0];
+	private static final int HAS_FROM = 1;
+	private static final int INITIAL_STACK = 16;
+
+	private final Tree.Kind kind;
+	/**
+	 * The name of identifiers
+	 */
+	private final String name;
+	/**
+	 * The binary name of class and primitive types
+	 */
+	private final String typeName;
+	/**
+	 * {@code type | boundedType << 8} for types, {@link PersistentTree#HAS_FROM} for accesses and
+	 * {@code type | valueType << 8} or {@code type | operator << 8} for expressions
+	 */
+	private final int flags;
+	/**
+	 * The value of constants, the raw bits of {@code double} constants
+	 */
+	private final long bits;
+	private final PersistentTree[] childs;
+	private final int hash;
+
+	private PersistentTree(Tree.Kind kind, String name, String typeName, int flags, long bits, PersistentTree[] childs) {
+		this.kind = kind;
+		this.name = name;
+		this.typeName = typeName;
+		this.flags = flags;
+		this.bits = bits;
+		this.childs = childs;
+		int hash = ((kind.ordinal() * 31 + flags) * 31 + (int) (bits ^ (bits >>> 32))) * 31 + (name == null?0:name.hashCode());
+		hash = hash * 31 + (typeName == null?0:typeName.hashCode());
+		for (PersistentTree child : childs) {
+			hash = hash * 31 + (child == null?0:child.hash);
+		}
+		this.hash = hash;
+	}
+
+	/**
+	 * Creates a persistent copy of an object tree, ids and parents are not kept. The tree is traversed with a
+	 * post-order {@link TreeCursor}, so the copies of the childs of a node are at the top of the stack of copies
+	 * when the node is copied.
+	 *
+	 * @param tree	:	the tree to copy	:	{@code Tree}
+	 * @return the persistent copy of {@code tree}	:	{@code PersistentTree}
+	 */
+	public static PersistentTree of(Tree tree) {
+		PersistentTree[] copies = new PersistentTree[INITIAL_STACK];
+		int size = 0;
+		TreeCursor cursor = TreeCursor.postOrder(tree);
+		while (cursor.next()) {
+			Tree node = cursor.current();
+			PersistentTree[] childs = NO_CHILDS;
+			if (node.childs != null) {
+				childs = new PersistentTree[node.childs.length];
+				for (int c = childs.length - 1; c >= 0; c--) {
+					if (node.childs[c] != null) {
+						childs[c] = copies[--size];
+						copies[size] = null;
+					}
+				}
+			}
+			if (size == copies.length) {
+				copies = Arrays.copyOf(copies, size * 2);
+			}
+			copies[size++] = ofNode(node, childs);
+		}
+		return copies[0];
+	}
+
+	private static PersistentTree ofNode(Tree tree, PersistentTree[] childs) {
+		switch (tree.getKind()) {
+			case IDENTIFIER: return new PersistentTree(Tree.Kind.IDENTIFIER, ((IdentifierTree) tree).name, null, 0, 0, childs);
+			case TYPE: {
+				TypeTree type = (TypeTree) tree;
+				return new PersistentTree(Tree.Kind.TYPE, null, type.typeName, type.type.ordinal() | (type.boundedType.ordinal() << 8), 0, childs);
+			}
+			case ACCESS: return new PersistentTree(Tree.Kind.ACCESS, null, null, ((AccessTree) tree).hasFrom?HAS_FROM:0, 0, childs);
+			case EXPRESSION: return ofExpression((ExpressionTree) tree, childs);
+			default: return new PersistentTree(tree.getKind(), null, null, 0, 0, childs);
+		}
+	}
+
+	private static PersistentTree ofExpression(ExpressionTree expression, PersistentTree[] childs) {
+		int flags = expression.type.ordinal();
+		long bits = 0;
+		switch (expression.type) {
+			case CONSTANT: {
+				ConstantTree constant = (ConstantTree) expression;
+				flags |= constant.valueType.ordinal() << 8;
+				bits = constant.valueType == ExpressionTree.ValueType.DOUBLE?Double.doubleToLongBits(constant.doubleValue):constant.longValue;
+				break;
+			}
+			case UNARY: flags |= ((UnaryTree) expression).operator.ordinal() << 8; break;
+			case BINARY: flags |= ((BinaryTree) expression).operator.ordinal() << 8; break;
+			default: break;
+		}
+		return new PersistentTree(Tree.Kind.EXPRESSION, null, null, flags, bits, childs);
+	}
+
+	/**
+	 * @return an identifier leaf named {@code name}	:	{@code PersistentTree}
+	 */
+	public static PersistentTree identifier(String name) {
+		return new PersistentTree(Tree.Kind.IDENTIFIER, name, null, 0, 0, NO_CHILDS);
+	}
+
+	/**
+	 * Creates a mutable copy of this tree, every node gets a new id. Like {@link PersistentTree#of(Tree)} the
+	 * tree is traversed in post-order without recursion.
+	 *
+	 * @return the object tree equivalent to this one	:	{@code Tree}
+	 * @throws ASTInternalException if the tree contains an invalid expression or a statement node without a concrete class
+	 */
+	public Tree toTree() throws ASTInternalException {
+		Tree[] copies = new Tree[INITIAL_STACK];
+		int size = 0;
+		Cursor cursor = new Cursor(this, AbstractTreeCursor.Order.POST_ORDER);
+		while (cursor.next()) {
+			PersistentTree node = cursor.current();
+			Tree[] treeChilds = new Tree[node.childs.length];
+			for (int c = treeChilds.length - 1; c >= 0; c--) {
+				if (node.childs[c] != null) {
+					treeChilds[c] = copies[--size];
+					copies[size] = null;
+				}
+			}
+			if (size == copies.length) {
+				copies = Arrays.copyOf(copies, size * 2);
+			}
+			copies[size++] = node.toNode(treeChilds);
+		}
+		return copies[0];
+	}
+
+	private Tree toNode(Tree[] treeChilds) throws ASTInternalException {
+		Tree tree;
+		switch (this.kind) {
+			case IDENTIFIER: {
+				IdentifierTree identifier = new IdentifierTree(this.name);
+				identifier.childs = treeChilds.length == 0?null:treeChilds;
+				identifier.adoptChilds();
+				tree = identifier;
+				break;
+			}
+			case TYPE: {
+				TypeTree type = new TypeTree(null, treeChilds.length == 0?null:treeChilds);
+				type.type = TypeTree.Type.values()[this.flags & 0xFF];
+				type.boundedType = TypeTree.BoundedType.values()[this.flags >>> 8];
+				type.typeName = this.typeName;
+				tree = type;
+				break;
+			}
+			case BOUNDS: tree = new BoundsTree(null, Arrays.copyOf(treeChilds, treeChilds.length, TypeTree[].class)); break;
+			case VARIABLE: tree = new VariableTree(null, treeChilds); break;
+			case ACCESS: {
+				AccessTree access = new AccessTree(null, treeChilds);
+				access.hasFrom = (this.flags & HAS_FROM) != 0;
+				tree = access;
+				break;
+			}
+			case BLOCK: tree = new BlockTree(null, Arrays.copyOf(treeChilds, treeChilds.length, StatementTree[].class)); break;
+			case ASSIGNMENT: tree = new AssignmentTree(null, treeChilds); break;
+			case EXPRESSION: tree = toExpression(treeChilds); break;
+			case TREE: tree = new Tree(null, treeChilds); break;
+			default: throw new ASTInternalException("jade.tree.PersistentTree#toTree", new UnsupportedOperationException("can't create a tree of kind " + this.kind));
+		}
+		return tree;
+	}
+
+	private ExpressionTree toExpression(Tree[] treeChilds) throws ASTInternalException {
+		int variant = this.flags >>> 8;
+		switch (ExpressionTree.Type.values()[this.flags & 0xFF]) {
+			case CONSTANT: {
+				ExpressionTree.ValueType valueType = ExpressionTree.ValueType.values()[variant];
+				if (valueType == ExpressionTree.ValueType.DOUBLE) {
+					return new ConstantTree(null, valueType, 0, Double.longBitsToDouble(this.bits));
+				}
+				return new ConstantTree(null, valueType, this.bits, 0);
+			}
+			case IDENTIFIER: return new IdentifierExpressionTree(null, treeChilds);
+			case UNARY: {
+				UnaryTree unary = new UnaryTree(null, treeChilds);
+				unary.operator = UnaryTree.Operator.values()[variant];
+				return unary;
+			}
+			case BINARY: {
+				BinaryTree binary = new BinaryTree(null, treeChilds);
+				binary.operator = BinaryTree.Operator.values()[variant];
+				return binary;
+			}
+			default: throw new ASTInternalException("jade.tree.PersistentTree#toTree", new UnsupportedOperationException("can't create an invalid expression"));
+		}
+	}
+
+	//++++++++++++Getters
+
+	public Tree.Kind getKind() {
+		return this.kind;
+	}
+
+	/**
+	 * @return the name of an identifier, {@code null} for other kinds	:	{@code String}
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return the binary name of a class or primitive type, {@code null} for other kinds	:	{@code String}
+	 */
+	public String getTypeName() {
+		return this.typeName;
+	}
+
+	public int getChildCount() {
+		return this.childs.length;
+	}
+
+	/**
+	 * @throws ASTInternalException if {@code pos < 0 || pos >= getChildCount()}
+	 */
+	public PersistentTree getChild(int pos) throws ASTInternalException {
+		checkPosition("jade.tree.PersistentTree#getChild", pos);
+		return this.childs[pos];
+	}
+
+	/**
+	 * @param path	:	the positions of the childs to follow from this node	:	{@code int[]}
+	 * @return the node at the end of {@code path}	:	{@code PersistentTree}
+	 * @throws ASTInternalException if a position is out of range
+	 */
+	public PersistentTree get(int[] path) throws ASTInternalException {
+		PersistentTree current = this;
+		for (int pos : path) {
+			current = current.getChild(pos);
+		}
+		return current;
+	}
+
+	//------------Getters
+
+	//++++++++++++Modifiers
+
+	/**
+	 * @param pos	:	the position of the child to replace	:	{@code int}
+	 * @param child	:	the new child	:	{@code PersistentTree}
+	 * @return a copy of this node with {@code child} at {@code pos}, all other childs are shared	:	{@code PersistentTree}
+	 * @throws ASTInternalException if {@code pos < 0 || pos >= getChildCount()}
+	 */
+	public PersistentTree withChild(int pos, PersistentTree child) throws ASTInternalException {
+		checkPosition("jade.tree.PersistentTree#withChild", pos);
+		if (this.childs[pos] == child) {
+			return this;
+		}
+		PersistentTree[] newChilds = this.childs.clone();
+		newChilds[pos] = child;
+		return new PersistentTree(this.kind, this.name, this.typeName, this.flags, this.bits, newChilds);
+	}
+
+	/**
+	 * Replaces the node at the end of {@code path}, only the nodes on the path are copied
+	 *
+	 * @param path			:	the positions of the childs to follow from this node	:	{@code int[]}
+	 * @param replacement	:	the new node	:	{@code PersistentTree}
+	 * @return the root of the modified tree	:	{@code PersistentTree}
+	 * @throws ASTInternalException if a position is out of range
+	 */
+	public PersistentTree replace(int[] path, PersistentTree replacement) throws ASTInternalException {
+		PersistentTree[] nodes = new PersistentTree[path.length];
+		PersistentTree current = this;
+		for (int depth = 0; depth < path.length; depth++) {
+			if (current == null) {
+				throw new ASTInternalException("jade.tree.PersistentTree#replace", new NullPointerException("null child at depth " + (depth - 1)));
+			}
+			nodes[depth] = current;
+			current = current.getChild(path[depth]);
+		}
+		PersistentTree result = replacement;
+		for (int depth = path.length - 1; depth >= 0; depth--) {
+			result = nodes[depth].withChild(path[depth], result);
+		}
+		return result;
+	}
+
+	//------------Modifiers
+
+	private void checkPosition(String caller, int pos) throws ASTInternalException {
+		if (pos < 0 || pos >= this.childs.length) {
+			throw new ASTInternalException(caller, new IndexOutOfBoundsException("jade.tree.PersistentTree#childs size : " + this.childs.length + " ; Position : " + pos));
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PersistentTree)) {
+			return false;
+		}
+		Cursor left = new Cursor(this, AbstractTreeCursor.Order.PRE_ORDER);
+		Cursor right = new Cursor((PersistentTree) obj, AbstractTreeCursor.Order.PRE_ORDER);
+		while (left.next() && right.next()) {
+			PersistentTree node = left.current();
+			PersistentTree other = right.current();
+			if (node == other) {
+				left.skipSubtree();
+				right.skipSubtree();
+			} else if (!node.sameNode(other)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares the payload and the positions of the {@code null} childs of two nodes, so two pre-order traversals
+	 * stay aligned while this returns {@code true}
+	 */
+	private boolean sameNode(PersistentTree other) {
+		if (this.hash != other.hash || this.kind != other.kind || this.flags != other.flags || this.bits != other.bits) {
+			return false;
+		}
+		if (this.name == null?other.name != null:!this.name.equals(other.name)) {
+			return false;
+		}
+		if (this.typeName == null?other.typeName != null:!this.typeName.equals(other.typeName)) {
+			return false;
+		}
+		if (this.childs.length != other.childs.length) {
+			return false;
+		}
+		for (int c = 0; c < this.childs.length; c++) {
+			if ((this.childs[c] == null) != (other.childs[c] == null)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A cursor over persistent trees, used to convert and compare them without recursion
+	 */
+	private static final class Cursor extends AbstractTreeCursor {
+
+		private final PersistentTree root;
+		private PersistentTree[] nodes;
+
+		private Cursor(PersistentTree root, Order order) {
+			super(order);
+			this.root = root;
+			this.nodes = new PersistentTree[INITIAL_STACK];
+		}
+
+		private PersistentTree current() {
+			checkCurrent();
+			return this.nodes[this.current];
+		}
+
+		@Override
+		protected int capacity() {
+			return this.nodes.length;
+		}
+
+		@Override
+		protected void grow(int capacity) {
+			this.nodes = Arrays.copyOf(this.nodes, capacity);
+		}
+
+		@Override
+		protected int childCount(int slot) {
+			return this.nodes[slot].childs.length;
+		}
+
+		@Override
+		protected boolean loadChild(int parentSlot, int child, int targetSlot) {
+			PersistentTree node = this.nodes[parentSlot].childs[child];
+			this.nodes[targetSlot] = node;
+			return node != null;
+		}
+
+		@Override
+		protected void moveSlot(int from, int to) {
+			this.nodes[to] = this.nodes[from];
+			this.nodes[from] = null;
+		}
+
+		@Override
+		protected void clearSlot(int slot) {
+			this.nodes[slot] = null;
+		}
+
+		@Override
+		protected boolean loadRoot() {
+			this.nodes[0] = this.root;
+			return true;
+		}
+
+	}
+
+}
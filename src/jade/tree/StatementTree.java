@@ -11,5 +11,10 @@ public abstract class StatementTree extends Tree {
 	protected StatementTree(Tree parent, Tree[] childs) {
 		super(parent, childs);
 	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.STATEMENT;
+	}
 
 }
@@ -10,9 +10,14 @@ import jade.exceptions.ASTInternalException;
  * @author Simon Emmanuel Gutierrez Brida
  * @version 0.1u
  */
-public class Tree {
+public class Tree implements Cloneable {
 	
-	protected static int CURRENT_ID = -1;
+	private static final int INITIAL_STACK = 16;
+	
+	/**
+	 * The kind of a tree node, each concrete node class has its own kind
+	 */
+	public static enum Kind {TREE, IDENTIFIER, TYPE, BOUNDS, VARIABLE, ACCESS, BLOCK, ASSIGNMENT, EXPRESSION, STATEMENT};
 	
 	/**
 	 * The parent (if any) of this tree
@@ -25,7 +30,22 @@ public class Tree {
 	/**
 	 * Unique id to identify this tree
 	 */
-	protected int id = getNextID();
+	protected int id;
+	/**
+	 * The cached structural hash, valid only if {@link Tree#hashed} is {@code true}
+	 */
+	private int structuralHash;
+	private boolean hashed = false;
+	/**
+	 * {@code true} for the nodes shared by a {@link TreeInterner}, frozen nodes have no parent and can't be modified
+	 */
+	protected boolean frozen = false;
+	/**
+	 * {@code true} if this node was given to more than one parent, {@link Tree#parent} only points to the first one
+	 * so changes below this node can't reach the other ancestors and neither this node nor its ancestors cache
+	 * their structural hash
+	 */
+	protected boolean shared = false;
 
 	/**
 	 * Construtor
@@ -34,15 +54,54 @@ public class Tree {
 	 * @param childs	:	the childs of this tree node, the ammount of childs for any tree node is fixed	:	{@code Tree[]}
 	 */
 	public Tree(Tree parent, Tree[] childs) {
+		this(parent, childs, getNextID());
+	}
+	
+	/**
+	 * Constructor with an explicit id, no new id is allocated. This tree becomes the parent of every child that is
+	 * not frozen.
+	 * 
+	 * @param parent	:	the parent (if any) of this tree	:	{@code Tree}
+	 * @param childs	:	the childs of this tree node	:	{@code Tree[]}
+	 * @param id		:	the id of this tree	:	{@code int}
+	 */
+	protected Tree(Tree parent, Tree[] childs, int id) {
 		this.parent = parent;
 		this.childs = childs;
+		this.id = id;
+		adoptChilds();
+	}
+	
+	/**
+	 * @return the next id to use, see {@link TreeIds}	:	{@code int}
+	 */
+	public static int getNextID() {
+		return TreeIds.next();
 	}
 	
 	/**
-	 * @return the next id to use	:	{@code int}
+	 * @return the kind of this tree node	:	{@code Tree.Kind}
+	 */
+	public Kind getKind() {
+		return Kind.TREE;
+	}
+
+	/**
+	 * Calls the method of {@code visitor} for the class of this node
+	 *
+	 * @param visitor	:	the visitor to dispatch to	:	{@code JadeTreeVisitor<R, P>}
+	 * @param p			:	the additional parameter passed to the visitor	:	{@code P}
+	 * @return the result of the visitor method	:	{@code R}
+	 */
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitOther(this, p);
+	}
+
+	/**
+	 * @return the unique id of this tree	:	{@code int}
 	 */
-	public synchronized static int getNextID() {
-		return ++Tree.CURRENT_ID;
+	public int getID() {
+		return this.id;
 	}
 	
 	/**
@@ -50,16 +109,52 @@ public class Tree {
 	 * 
 	 * @param child						:	the child to set	:	{@code Tree}
 	 * @param pos						:	the position		:	{@code int}
-	 * @throws ASTInternalException if {@link Tree#childs} is {@code null} or {@code pos < 0 || pos >=} {@link Tree#childs}{@code .length}
+	 * @throws ASTInternalException if this tree is frozen, {@link Tree#childs} is {@code null} or {@code pos < 0 || pos >=} {@link Tree#childs}{@code .length}
 	 */
 	protected void setChild(Tree child, int pos) throws ASTInternalException {
+		if (this.frozen) {
+			throw new ASTInternalException("jade.tree.Tree#setChild", new IllegalStateException("shared trees can't be modified"));
+		}
 		if (this.childs == null) {
 			throw new ASTInternalException("jade.tree.Tree#setChild", new NullPointerException("jade.tree.Tree#childs is null"));
 		}
 		if (pos < 0 || pos >= this.childs.length) {
 			throw new ASTInternalException("jade.tree.Tree#setChild", new IndexOutOfBoundsException("jade.tree.Tree#childs size : " + this.childs.length + " ; Position : " + pos));
 		}
+		Tree old = this.childs[pos];
+		if (old != null && old.parent == this && old != child) {
+			old.parent = null;
+		}
 		this.childs[pos] = child;
+		adopt(child);
+		invalidateStructuralHash();
+	}
+	
+	/**
+	 * Makes this tree the parent of {@code child}, frozen childs are shared and keep no parent. A child that already
+	 * has another parent is marked as {@link Tree#shared}.
+	 */
+	protected void adopt(Tree child) {
+		if (child == null || child.frozen || child.parent == this) {
+			return;
+		}
+		if (child.parent == null) {
+			child.parent = this;
+		} else {
+			child.shared = true;
+		}
+	}
+	
+	/**
+	 * Calls {@link Tree#adopt(Tree)} on every child, constructors that set {@link Tree#childs} after calling the
+	 * super constructor must call this method
+	 */
+	protected void adoptChilds() {
+		if (this.childs != null) {
+			for (Tree child : this.childs) {
+				adopt(child);
+			}
+		}
 	}
 	
 	/**
@@ -79,28 +174,29 @@ public class Tree {
 	}
 	
 	/**
-	 * Returns the childs contained between two positions (inclusive)
+	 * Returns a read only view of the childs contained between two positions (inclusive), no child is copied.
+	 * An empty range is given by {@code endPos == startPos - 1}.
 	 * 
-	 * @param startPos	:	the position of the first child to return	:	{@code int}
-	 * @param endPos	:	the position of the last child to return	:	{@code int}
-	 * @return			:	an array containing all childs between {@code startPos} and {@code endPos}	:	{@code Tree[]}	
+	 * @param startPos	:	the position of the first child of the range	:	{@code int}
+	 * @param endPos	:	the position of the last child of the range	:	{@code int}
+	 * @return			:	a view of all childs between {@code startPos} and {@code endPos}	:	{@code ChildRange<T>}	
 	 * 
-	 * @throws ASTInternalException if {@link Tree#childs} is {@code null} or {@code startPos < 0 || startPos >=} {@link Tree#childs}{@code .length} or {@code endPos < 0 || endPos >=} {@link Tree#childs}{@code .length} or {@code startPos > endPos}}
+	 * @throws ASTInternalException if {@link Tree#childs} is {@code null} or {@code startPos < 0 || startPos >} {@link Tree#childs}{@code .length} or {@code endPos >=} {@link Tree#childs}{@code .length} or {@code startPos > endPos + 1}
 	 */
-	protected Tree[] getChilds(int startPos, int endPos) throws ASTInternalException {
+	protected <T extends Tree> ChildRange<T> getChildRange(int startPos, int endPos) throws ASTInternalException {
 		if (this.childs == null) {
-			throw new ASTInternalException("jade.tree.Tree#getChilds", new NullPointerException("jade.tree.Tree#childs is null"));
+			throw new ASTInternalException("jade.tree.Tree#getChildRange", new NullPointerException("jade.tree.Tree#childs is null"));
 		}
-		if (startPos < 0 || startPos >= this.childs.length) {
-			throw new ASTInternalException("jade.tree.Tree#getChilds", new IndexOutOfBoundsException("jade.tree.Tree#childs size : " + this.childs.length + " ; Start position : " + startPos));
+		if (startPos < 0 || startPos > this.childs.length) {
+			throw new ASTInternalException("jade.tree.Tree#getChildRange", new IndexOutOfBoundsException("jade.tree.Tree#childs size : " + this.childs.length + " ; Start position : " + startPos));
 		}
-		if (endPos < 0 || endPos >= this.childs.length) {
-			throw new ASTInternalException("jade.tree.Tree#getChilds", new IndexOutOfBoundsException("jade.tree.Tree#childs size : " + this.childs.length + " ; End position : " + endPos));
+		if (endPos >= this.childs.length) {
+			throw new ASTInternalException("jade.tree.Tree#getChildRange", new IndexOutOfBoundsException("jade.tree.Tree#childs size : " + this.childs.length + " ; End position : " + endPos));
 		}
-		if (startPos > endPos) {
-			throw new ASTInternalException("jade.tree.Tree#getChilds", new IllegalArgumentException("the start positon is greater than then end position"));
+		if (startPos > endPos + 1) {
+			throw new ASTInternalException("jade.tree.Tree#getChildRange", new IllegalArgumentException("the start positon is greater than then end position"));
 		}
-		return Arrays.copyOfRange(this.childs, startPos, endPos);
+		return new ChildRange<T>(this, startPos, endPos - startPos + 1);
 	}
 	
 	/**
@@ -124,31 +220,261 @@ public class Tree {
 		return this.parent == null;
 	}
 	
+	/**
+	 * @return {@code true} if this tree is shared by a {@link TreeInterner} and can't be modified
+	 */
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
+	/**
+	 * @param order	:	the order in which nodes are visited	:	{@code AbstractTreeCursor.Order}
+	 * @return an iterative cursor over this tree and its descendants	:	{@code TreeCursor}
+	 */
+	public TreeCursor cursor(AbstractTreeCursor.Order order) {
+		return new TreeCursor(this, order);
+	}
+
+	//++++++++++++Structural hashing and equality
+	
+	/**
+	 * Returns a hash of the structure of this tree (its kind, payload and the structural hashes of its childs),
+	 * ids and parents are not part of the structure. The hash is computed once and cached until a child of this
+	 * tree or of any tree below it is replaced, trees containing a {@link Tree#shared} node are not cached since
+	 * their parent pointers can't be trusted.
+	 * <p>
+	 * The tree is traversed with a post-order {@link TreeCursor}, cached subtrees are not traversed again.
+	 * 
+	 * @return the structural hash of this tree	:	{@code int}
+	 */
+	public int structuralHash() {
+		if (this.hashed) {
+			return this.structuralHash;
+		}
+		int[] hashes = new int[INITIAL_STACK];
+		boolean[] cacheable = new boolean[INITIAL_STACK];
+		int size = 0;
+		TreeCursor cursor = new HashCursor(this);
+		while (cursor.next()) {
+			Tree node = cursor.current();
+			int hash;
+			boolean canCache;
+			if (node.hashed) {
+				hash = node.structuralHash;
+				canCache = true;
+			} else {
+				hash = node.getKind().ordinal() * 31 + node.payloadHash();
+				canCache = !node.shared;
+				if (node.childs != null) {
+					int first = size;
+					for (Tree child : node.childs) {
+						if (child != null) {
+							first--;
+						}
+					}
+					hash = hash * 31 + node.childs.length;
+					int next = first;
+					for (Tree child : node.childs) {
+						if (child == null) {
+							hash = hash * 31;
+						} else {
+							hash = hash * 31 + hashes[next];
+							canCache &= cacheable[next];
+							next++;
+						}
+					}
+					size = first;
+				}
+				if (canCache) {
+					node.structuralHash = hash;
+					node.hashed = true;
+				}
+			}
+			if (size == hashes.length) {
+				hashes = Arrays.copyOf(hashes, size * 2);
+				cacheable = Arrays.copyOf(cacheable, size * 2);
+			}
+			hashes[size] = hash;
+			cacheable[size] = canCache;
+			size++;
+		}
+		return hashes[0];
+	}
+	
+	/**
+	 * Compares the structure of this tree with the structure of {@code other}, trees with different structural
+	 * hashes are rejected without traversing them. Both trees are traversed together with pre-order
+	 * {@link TreeCursor}s, subtrees shared by both are not traversed.
+	 * 
+	 * @param other	:	the tree to compare with	:	{@code Tree}
+	 * @return {@code true} if both trees have the same kind, payload and structurally equal childs
+	 */
+	public boolean structurallyEquals(Tree other) {
+		if (this == other) {
+			return true;
+		}
+		if (other == null || getKind() != other.getKind() || structuralHash() != other.structuralHash()) {
+			return false;
+		}
+		TreeCursor left = TreeCursor.preOrder(this);
+		TreeCursor right = TreeCursor.preOrder(other);
+		while (left.next()) {
+			if (!right.next()) {
+				return false;
+			}
+			Tree a = left.current();
+			Tree b = right.current();
+			if (a == b) {
+				left.skipSubtree();
+				right.skipSubtree();
+				continue;
+			}
+			if (a.getKind() != b.getKind() || (a.hashed && b.hashed && a.structuralHash != b.structuralHash) || !a.payloadEquals(b)) {
+				return false;
+			}
+			if (a.childs == null || b.childs == null) {
+				if (a.childs != b.childs) {
+					return false;
+				}
+				continue;
+			}
+			if (a.childs.length != b.childs.length) {
+				return false;
+			}
+			for (int c = 0; c < a.childs.length; c++) {
+				if ((a.childs[c] == null) != (b.childs[c] == null)) {
+					return false;
+				}
+			}
+		}
+		return !right.next();
+	}
+	
+	/**
+	 * @return the hash of the data held by this node besides its childs	:	{@code int}
+	 */
+	protected int payloadHash() {
+		return 0;
+	}
+	
+	/**
+	 * @param other	:	a tree of the same kind as this one	:	{@code Tree}
+	 * @return {@code true} if the data held by this node besides its childs is equal to the one held by {@code other}
+	 */
+	protected boolean payloadEquals(Tree other) {
+		return true;
+	}
+	
+	/**
+	 * Discards the cached structural hash of this tree and of all its ancestors, a cached node only has cached
+	 * childs so the walk stops at the first node without a cached hash
+	 */
+	protected void invalidateStructuralHash() {
+		Tree current = this;
+		while (current != null && current.hashed) {
+			current.hashed = false;
+			current = current.parent;
+		}
+	}
+	
+	/**
+	 * A post-order cursor that doesn't descend into nodes with a cached structural hash
+	 */
+	private static final class HashCursor extends TreeCursor {
+		
+		private HashCursor(Tree root) {
+			super(root, Order.POST_ORDER);
+		}
+		
+		@Override
+		protected int childCount(int slot) {
+			return this.nodes[slot].hashed?0:super.childCount(slot);
+		}
+		
+	}
+	
+	//------------Structural hashing and equality
+	
 	/**
 	 * On the contrary with the normal {code clone()} this one will keep the original IDs
 	 * 
-	 * @return a clone of this tree (including a clone of the parent and the childs) mantaining the original IDs
+	 * @return a clone of this tree (including a clone of the childs but not of the parent) mantaining the original IDs
 	 */
 	public Tree clone_keeping_id() {
-		int current_id = Tree.CURRENT_ID; //store current value of Tree.CURRENT_ID
-		Tree[] childClones = new Tree[this.childs.length];							//++++++++++++++++++++
-		for (int c = 0; c < this.childs.length; c++) {								//++++++++++++++++++++
-			childClones[c] = this.childs[c].clone_keeping_id();						//Tree.CURRENT_ID is modified
-		}																			//++++++++++++++++++++
-		Tree treeClone = new Tree(this.parent.clone_keeping_id(), childClones);		//++++++++++++++++++++
-		Tree.CURRENT_ID = current_id; //old value of Tree.CURRENT_ID is restored
-		treeClone.id = this.id;
-		return treeClone;
+		return copy(true);
 	}
 	
+	/**
+	 * Deep copies this tree, each copied node gets a new id. The copy has no parent, the copied childs have
+	 * the copy as parent and no copied node is frozen or shared.
+	 * <p>
+	 * To produce many variants of a tree consider {@link PersistentTree}, which shares unmodified subtrees
+	 * instead of copying them.
+	 * 
+	 * @return a clone of this tree (including a clone of the childs but not of the parent)
+	 */
 	@Override
 	public Tree clone() {
-		Tree[] childClones = new Tree[this.childs.length];
-		for (int c = 0; c < this.childs.length; c++) {
-			childClones[c] = this.childs[c].clone();
+		return copy(false);
+	}
+	
+	/**
+	 * Discards the cached {@link ChildRange} views of this node, called on copies since the views of the
+	 * original node read the childs of the original
+	 */
+	protected void clearViews() {}
+	
+	/**
+	 * Copies this node alone with {@code Object#clone()}, so the fields of subclasses are copied too. The copy
+	 * has no parent, is not frozen and has {@code childs} as childs.
+	 * 
+	 * @param childs	:	the childs of the copy	:	{@code Tree[]}
+	 * @param id		:	the id of the copy	:	{@code int}
+	 * @return the copy of this node	:	{@code Tree}
+	 */
+	Tree copyNode(Tree[] childs, int id) {
+		Tree node;
+		try {
+			node = (Tree) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException("jade.tree.Tree#clone", e);
+		}
+		node.parent = null;
+		node.frozen = false;
+		node.shared = false;
+		node.clearViews();
+		node.id = id;
+		node.childs = childs;
+		return node;
+	}
+	
+	/**
+	 * Copies every node with {@link Tree#copyNode(Tree[], int)}, visiting them with a post-order {@link TreeCursor}
+	 * so the copies of the childs of a node are at the top of the stack of copies when the node is copied
+	 */
+	private Tree copy(boolean keepIds) {
+		Tree[] copies = new Tree[INITIAL_STACK];
+		int size = 0;
+		TreeCursor cursor = TreeCursor.postOrder(this);
+		while (cursor.next()) {
+			Tree node = cursor.current();
+			Tree nodeCopy = node.copyNode(node.childs == null?null:node.childs.clone(), keepIds?node.id:getNextID());
+			if (node.childs != null) {
+				for (int c = node.childs.length - 1; c >= 0; c--) {
+					if (node.childs[c] != null) {
+						Tree childCopy = copies[--size];
+						copies[size] = null;
+						childCopy.parent = nodeCopy;
+						nodeCopy.childs[c] = childCopy;
+					}
+				}
+			}
+			if (size == copies.length) {
+				copies = Arrays.copyOf(copies, size * 2);
+			}
+			copies[size++] = nodeCopy;
 		}
-		Tree treeClone = new Tree(this.parent.clone(), childClones);
-		return treeClone;
+		return copies[0];
 	}
 	
 }
@@ -0,0 +1,815 @@
+package jade.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jade.exceptions.ASTInternalException;
+
+/**
+ * Compact storage for JADE trees
+ * <p>
+ * Instead of one object per node the arena keeps every node as an index into primitive arrays: its
+ * {@link Tree.Kind}, its parent, the range of its children in a shared child array, a payload and some flags.
+ * Identifier and type names are stored once in a side table and referenced from the payload, the values of constants
+ * are kept in another side table also referenced from the payload. Nodes are added bottom
+ * up, a node's children must be added before it and each node can only have one parent.
+ * <p>
+ * Nodes are accessed through flyweight views ({@link TreeArena.Node} and its subclasses) holding only the
+ * arena and the index, they expose the same accessors as the corresponding object tree classes.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TreeArena {
+
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int NO_NODE = -1;
+	private static final Tree.Kind[] KINDS = Tree.Kind.values();
+	private static final TypeTree.Type[] TYPES = TypeTree.Type.values();
+	private static final TypeTree.BoundedType[] BOUNDED_TYPES = TypeTree.BoundedType.values();
+	private static final ExpressionTree.Type[] EXPRESSION_TYPES = ExpressionTree.Type.values();
+	private static final ExpressionTree.ValueType[] VALUE_TYPES = ExpressionTree.ValueType.values();
+	private static final UnaryTree.Operator[] UNARY_OPERATORS = UnaryTree.Operator.values();
+	private static final BinaryTree.Operator[] BINARY_OPERATORS = BinaryTree.Operator.values();
+	private static final int HAS_FROM = 1;
+
+	//++++++++++++Node storage
+
+	protected int[] kinds;
+	protected int[] parents;
+	protected int[] childStart;
+	protected int[] childCount;
+	/**
+	 * Index in {@link TreeArena#names} of the name of identifiers and of the binary name of class and primitive types,
+	 * index in {@link TreeArena#constants} of the value of constants
+	 */
+	protected int[] payloads;
+	/**
+	 * {@code type | boundedType << 8} for types, {@link TreeArena#HAS_FROM} for accesses and
+	 * {@code type | valueType << 8} or {@code type | operator << 8} for expressions
+	 */
+	protected int[] flags;
+	protected int size;
+
+	protected int[] children;
+	protected int childrenSize;
+
+	protected List<String> names;
+	protected Map<String, Integer> nameIds;
+	/**
+	 * The values of constants, the raw bits of {@code double} constants
+	 */
+	protected long[] constants;
+	protected int constantsSize;
+	/**
+	 * The resolver used by {@link TreeArena.TypeNode#getTypeClass()}
+	 */
+	protected TypeResolver resolver;
+
+	//------------Node storage
+
+	public TreeArena() {
+		this.kinds = new int[INITIAL_CAPACITY];
+		this.parents = new int[INITIAL_CAPACITY];
+		this.childStart = new int[INITIAL_CAPACITY];
+		this.childCount = new int[INITIAL_CAPACITY];
+		this.payloads = new int[INITIAL_CAPACITY];
+		this.flags = new int[INITIAL_CAPACITY];
+		this.size = 0;
+		this.children = new int[INITIAL_CAPACITY];
+		this.childrenSize = 0;
+		this.names = new ArrayList<String>();
+		this.nameIds = new HashMap<String, Integer>();
+		this.constants = new long[INITIAL_CAPACITY];
+		this.constantsSize = 0;
+		this.resolver = TypeResolver.DEFAULT;
+	}
+
+	//++++++++++++Builders
+
+	public int addIdentifier(String name) throws ASTInternalException {
+		return addNode(Tree.Kind.IDENTIFIER, intern(name), 0);
+	}
+
+	public int addType(Class<?> typeClass) throws ASTInternalException {
+		return addType(typeClass.getName());
+	}
+
+	/**
+	 * @param typeName	:	the binary name of a class or primitive type	:	{@code String}
+	 */
+	public int addType(String typeName) throws ASTInternalException {
+		return addNode(Tree.Kind.TYPE, intern(typeName), typeFlags(TypeResolver.isPrimitive(typeName)?TypeTree.Type.PRIMITIVE:TypeTree.Type.CLASS, TypeTree.BoundedType.NONE));
+	}
+
+	public int addIdentifierType(int identifier) throws ASTInternalException {
+		return addNode(Tree.Kind.TYPE, NO_NODE, typeFlags(TypeTree.Type.IDENTIFIER, TypeTree.BoundedType.NONE), identifier);
+	}
+
+	/**
+	 * Adds a parameterized type ({@code parameterized == true}) or a bounded type implementing {@code typeParameters}
+	 */
+	public int addParameterizedType(int parameterizedType, int[] typeParameters, boolean parameterized) throws ASTInternalException {
+		int[] contents = new int[typeParameters.length + 1];
+		contents[0] = parameterizedType;
+		System.arraycopy(typeParameters, 0, contents, 1, typeParameters.length);
+		TypeTree.Type type = parameterized?TypeTree.Type.PARAMETERIZED:TypeTree.Type.BOUNDED;
+		TypeTree.BoundedType boundedType = parameterized?TypeTree.BoundedType.NONE:TypeTree.BoundedType.IMPLEMENTS;
+		return addNode(Tree.Kind.TYPE, NO_NODE, typeFlags(type, boundedType), contents);
+	}
+
+	public int addExtendsType(int boundedType, int bounds) throws ASTInternalException {
+		return addNode(Tree.Kind.TYPE, NO_NODE, typeFlags(TypeTree.Type.BOUNDED, TypeTree.BoundedType.EXTENDS), boundedType, bounds);
+	}
+
+	public int addSuperType(int boundedType, int superType) throws ASTInternalException {
+		return addNode(Tree.Kind.TYPE, NO_NODE, typeFlags(TypeTree.Type.BOUNDED, TypeTree.BoundedType.SUPER), boundedType, superType);
+	}
+
+	public int addBounds(int... types) throws ASTInternalException {
+		return addNode(Tree.Kind.BOUNDS, NO_NODE, 0, types);
+	}
+
+	public int addVariable(int type, int identifier) throws ASTInternalException {
+		return addNode(Tree.Kind.VARIABLE, NO_NODE, 0, type, identifier);
+	}
+
+	/**
+	 * @param from	:	the from identifier or {@code -1} if the access has none	:	{@code int}
+	 */
+	public int addAccess(int identifier, int from, int block) throws ASTInternalException {
+		if (from == NO_NODE) {
+			return addNode(Tree.Kind.ACCESS, NO_NODE, 0, identifier, block);
+		}
+		return addNode(Tree.Kind.ACCESS, NO_NODE, HAS_FROM, identifier, from, block);
+	}
+
+	public int addBlock(int... statements) throws ASTInternalException {
+		return addNode(Tree.Kind.BLOCK, NO_NODE, 0, statements);
+	}
+
+	public int addAssignment(int identifier, int expression) throws ASTInternalException {
+		return addNode(Tree.Kind.ASSIGNMENT, NO_NODE, 0, identifier, expression);
+	}
+
+	public int addConstant(int value) throws ASTInternalException {
+		return addConstant(ExpressionTree.ValueType.INT, value);
+	}
+
+	public int addConstant(long value) throws ASTInternalException {
+		return addConstant(ExpressionTree.ValueType.LONG, value);
+	}
+
+	public int addConstant(double value) throws ASTInternalException {
+		return addConstant(ExpressionTree.ValueType.DOUBLE, Double.doubleToLongBits(value));
+	}
+
+	public int addConstant(boolean value) throws ASTInternalException {
+		return addConstant(ExpressionTree.ValueType.BOOLEAN, value?1:0);
+	}
+
+	public int addIdentifierExpression(int identifier) throws ASTInternalException {
+		return addNode(Tree.Kind.EXPRESSION, NO_NODE, ExpressionTree.Type.IDENTIFIER.ordinal(), identifier);
+	}
+
+	public int addUnary(UnaryTree.Operator operator, int operand) throws ASTInternalException {
+		return addNode(Tree.Kind.EXPRESSION, NO_NODE, expressionFlags(ExpressionTree.Type.UNARY, operator.ordinal()), operand);
+	}
+
+	public int addBinary(int left, BinaryTree.Operator operator, int right) throws ASTInternalException {
+		return addNode(Tree.Kind.EXPRESSION, NO_NODE, expressionFlags(ExpressionTree.Type.BINARY, operator.ordinal()), left, right);
+	}
+
+	/**
+	 * Copies an object tree (without its parent) into this arena, the tree is visited with a post-order
+	 * {@link TreeCursor} so its nodes are added bottom up without recursion
+	 *
+	 * @param tree	:	the tree to copy	:	{@code Tree}
+	 * @return the index of the copy of {@code tree}	:	{@code int}
+	 * @throws ASTInternalException if {@code tree} contains an invalid expression
+	 */
+	public int add(Tree tree) throws ASTInternalException {
+		int[] added = new int[INITIAL_CAPACITY];
+		int size = 0;
+		TreeCursor cursor = TreeCursor.postOrder(tree);
+		while (cursor.next()) {
+			Tree node = cursor.current();
+			int childCount = node.childs == null?0:node.childs.length;
+			int[] copies = new int[childCount];
+			for (int c = childCount - 1; c >= 0; c--) {
+				copies[c] = node.childs[c] == null?NO_NODE:added[--size];
+			}
+			if (size == added.length) {
+				added = Arrays.copyOf(added, size * 2);
+			}
+			added[size++] = addCopy(node, copies);
+		}
+		return added[0];
+	}
+
+	private int addCopy(Tree tree, int[] copies) throws ASTInternalException {
+		switch (tree.getKind()) {
+			case IDENTIFIER: return addIdentifier(((IdentifierTree) tree).name);
+			case TYPE: {
+				TypeTree type = (TypeTree) tree;
+				return addNode(Tree.Kind.TYPE, type.typeName == null?NO_NODE:intern(type.typeName), typeFlags(type.type, type.boundedType), copies);
+			}
+			case ACCESS: return addNode(Tree.Kind.ACCESS, NO_NODE, ((AccessTree) tree).hasFrom?HAS_FROM:0, copies);
+			case EXPRESSION: {
+				ExpressionTree expression = (ExpressionTree) tree;
+				switch (expression.type) {
+					case CONSTANT: {
+						ConstantTree constant = (ConstantTree) expression;
+						return addConstant(constant.valueType, constant.valueType == ExpressionTree.ValueType.DOUBLE?Double.doubleToLongBits(constant.doubleValue):constant.longValue);
+					}
+					case IDENTIFIER: return addNode(Tree.Kind.EXPRESSION, NO_NODE, ExpressionTree.Type.IDENTIFIER.ordinal(), copies);
+					case UNARY: return addNode(Tree.Kind.EXPRESSION, NO_NODE, expressionFlags(ExpressionTree.Type.UNARY, ((UnaryTree) expression).operator.ordinal()), copies);
+					case BINARY: return addNode(Tree.Kind.EXPRESSION, NO_NODE, expressionFlags(ExpressionTree.Type.BINARY, ((BinaryTree) expression).operator.ordinal()), copies);
+					default: throw new ASTInternalException("jade.tree.TreeArena#add", new UnsupportedOperationException("can't add an invalid expression"));
+				}
+			}
+			default: return addNode(tree.getKind(), NO_NODE, 0, copies);
+		}
+	}
+
+	//------------Builders
+
+	//++++++++++++Accessors
+
+	/**
+	 * @return the amount of nodes in this arena	:	{@code int}
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	public Tree.Kind getKind(int node) {
+		return KINDS[this.kinds[node]];
+	}
+
+	/**
+	 * @return the index of the parent of {@code node} or {@code -1} if it's a root	:	{@code int}
+	 */
+	public int getParent(int node) {
+		return this.parents[node];
+	}
+
+	public int getChildCount(int node) {
+		return this.childCount[node];
+	}
+
+	/**
+	 * @throws ASTInternalException if {@code pos < 0 || pos >= getChildCount(node)}
+	 */
+	public int getChild(int node, int pos) throws ASTInternalException {
+		if (pos < 0 || pos >= this.childCount[node]) {
+			throw new ASTInternalException("jade.tree.TreeArena#getChild", new IndexOutOfBoundsException("jade.tree.TreeArena#childCount : " + this.childCount[node] + " ; Position : " + pos));
+		}
+		return this.children[this.childStart[node] + pos];
+	}
+
+	/**
+	 * @return a view of {@code node} of the class matching its kind	:	{@code TreeArena.Node}
+	 */
+	public Node node(int node) {
+		switch (getKind(node)) {
+			case IDENTIFIER: return new IdentifierNode(this, node);
+			case TYPE: return new TypeNode(this, node);
+			case BOUNDS: return new BoundsNode(this, node);
+			case VARIABLE: return new VariableNode(this, node);
+			case ACCESS: return new AccessNode(this, node);
+			case BLOCK: return new BlockNode(this, node);
+			case ASSIGNMENT: return new AssignmentNode(this, node);
+			case EXPRESSION: {
+				switch (EXPRESSION_TYPES[this.flags[node] & 0xFF]) {
+					case CONSTANT: return new ConstantNode(this, node);
+					case IDENTIFIER: return new IdentifierExpressionNode(this, node);
+					case UNARY: return new UnaryNode(this, node);
+					case BINARY: return new BinaryNode(this, node);
+					default: return new ExpressionNode(this, node);
+				}
+			}
+			default: return new Node(this, node);
+		}
+	}
+
+	/**
+	 * @param resolver	:	the resolver used to load the classes of class and primitive types	:	{@code TypeResolver}
+	 */
+	public void setResolver(TypeResolver resolver) {
+		this.resolver = resolver == null?TypeResolver.DEFAULT:resolver;
+	}
+
+	/**
+	 * @param node	:	the first node of the traversal	:	{@code int}
+	 * @param order	:	the order in which nodes are visited	:	{@code AbstractTreeCursor.Order}
+	 * @return an iterative cursor over {@code node} and its descendants	:	{@code ArenaCursor}
+	 */
+	public ArenaCursor cursor(int node, AbstractTreeCursor.Order order) {
+		return new ArenaCursor(this, node, order);
+	}
+
+	/**
+	 * @return an estimation, in bytes, of the memory used by the node and constant arrays	:	{@code long}
+	 */
+	public long getArraysSize() {
+		return 4L * (6L * this.kinds.length + this.children.length) + 8L * this.constants.length;
+	}
+
+	//------------Accessors
+
+	//++++++++++++Storage (private)
+
+	private int addNode(Tree.Kind kind, int payload, int flags, int... nodeChildren) throws ASTInternalException {
+		for (int child : nodeChildren) {
+			if (child < NO_NODE || child >= this.size) {
+				throw new ASTInternalException("jade.tree.TreeArena#addNode", new IndexOutOfBoundsException("jade.tree.TreeArena#size : " + this.size + " ; Child : " + child));
+			}
+			if (child != NO_NODE && this.parents[child] != NO_NODE) {
+				throw new ASTInternalException("jade.tree.TreeArena#addNode", new IllegalArgumentException("node " + child + " already has a parent"));
+			}
+		}
+		if (this.size == this.kinds.length) {
+			int capacity = this.size * 2;
+			this.kinds = Arrays.copyOf(this.kinds, capacity);
+			this.parents = Arrays.copyOf(this.parents, capacity);
+			this.childStart = Arrays.copyOf(this.childStart, capacity);
+			this.childCount = Arrays.copyOf(this.childCount, capacity);
+			this.payloads = Arrays.copyOf(this.payloads, capacity);
+			this.flags = Arrays.copyOf(this.flags, capacity);
+		}
+		if (this.childrenSize + nodeChildren.length > this.children.length) {
+			this.children = Arrays.copyOf(this.children, Math.max(this.children.length * 2, this.childrenSize + nodeChildren.length));
+		}
+		int node = this.size++;
+		this.kinds[node] = kind.ordinal();
+		this.parents[node] = NO_NODE;
+		this.childStart[node] = this.childrenSize;
+		this.childCount[node] = nodeChildren.length;
+		this.payloads[node] = payload;
+		this.flags[node] = flags;
+		for (int child : nodeChildren) {
+			this.children[this.childrenSize++] = child;
+			if (child != NO_NODE) {
+				this.parents[child] = node;
+			}
+		}
+		return node;
+	}
+
+	private int intern(String name) {
+		Integer nameId = this.nameIds.get(name);
+		if (nameId == null) {
+			nameId = this.names.size();
+			this.names.add(name);
+			this.nameIds.put(name, nameId);
+		}
+		return nameId;
+	}
+
+	private int addConstant(ExpressionTree.ValueType valueType, long bits) throws ASTInternalException {
+		if (this.constantsSize == this.constants.length) {
+			this.constants = Arrays.copyOf(this.constants, this.constantsSize * 2);
+		}
+		this.constants[this.constantsSize] = bits;
+		int node = addNode(Tree.Kind.EXPRESSION, this.constantsSize, expressionFlags(ExpressionTree.Type.CONSTANT, valueType.ordinal()));
+		this.constantsSize++;
+		return node;
+	}
+
+	private static int expressionFlags(ExpressionTree.Type type, int variant) {
+		return type.ordinal() | (variant << 8);
+	}
+
+	private static int typeFlags(TypeTree.Type type, TypeTree.BoundedType boundedType) {
+		return type.ordinal() | (boundedType.ordinal() << 8);
+	}
+
+	//------------Storage (private)
+
+	//++++++++++++Views
+
+	/**
+	 * A view of a node of a {@link TreeArena}
+	 */
+	public static class Node {
+
+		protected final TreeArena arena;
+		protected final int index;
+
+		protected Node(TreeArena arena, int index) {
+			this.arena = arena;
+			this.index = index;
+		}
+
+		/**
+		 * @return the index of this node in its arena, unique inside the arena	:	{@code int}
+		 */
+		public int getID() {
+			return this.index;
+		}
+
+		public Tree.Kind getKind() {
+			return this.arena.getKind(this.index);
+		}
+
+		/**
+		 * @return the parent of this node or {@code null} if it's a root	:	{@code TreeArena.Node}
+		 */
+		public Node getParent() {
+			int parent = this.arena.parents[this.index];
+			return parent == NO_NODE?null:this.arena.node(parent);
+		}
+
+		public boolean isLeaf() {
+			return this.arena.childCount[this.index] == 0;
+		}
+
+		public boolean isRoot() {
+			return this.arena.parents[this.index] == NO_NODE;
+		}
+
+		public int getChildCount() {
+			return this.arena.childCount[this.index];
+		}
+
+		public Node getChild(int pos) throws ASTInternalException {
+			int child = this.arena.getChild(this.index, pos);
+			return child == NO_NODE?null:this.arena.node(child);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Node && ((Node) other).arena == this.arena && ((Node) other).index == this.index;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.index;
+		}
+
+	}
+
+	public static class IdentifierNode extends Node {
+
+		protected IdentifierNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public String getName() {
+			return this.arena.names.get(this.arena.payloads[this.index]);
+		}
+
+	}
+
+	public static class TypeNode extends Node {
+
+		protected TypeNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		protected TypeTree.Type type() {
+			return TYPES[this.arena.flags[this.index] & 0xFF];
+		}
+
+		protected TypeTree.BoundedType boundedType() {
+			return BOUNDED_TYPES[this.arena.flags[this.index] >>> 8];
+		}
+
+		public boolean isClass() {
+			return type() == TypeTree.Type.CLASS;
+		}
+
+		public boolean isPrimitive() {
+			return type() == TypeTree.Type.PRIMITIVE;
+		}
+
+		public boolean isIdentifier() {
+			return type() == TypeTree.Type.IDENTIFIER;
+		}
+
+		public boolean isParameterized() {
+			return type() == TypeTree.Type.PARAMETERIZED;
+		}
+
+		public boolean isBounded() {
+			return type() == TypeTree.Type.BOUNDED;
+		}
+
+		public boolean isValid() {
+			return type() != TypeTree.Type.INVALID;
+		}
+
+		public boolean isImplementsBound() {
+			return boundedType() == TypeTree.BoundedType.IMPLEMENTS;
+		}
+
+		public boolean isExtendsBound() {
+			return boundedType() == TypeTree.BoundedType.EXTENDS;
+		}
+
+		public boolean isSuperBound() {
+			return boundedType() == TypeTree.BoundedType.SUPER;
+		}
+
+		public String getTypeName() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getTypeName()", isClass() || isPrimitive());
+			return this.arena.names.get(this.arena.payloads[this.index]);
+		}
+
+		/**
+		 * @throws ASTInternalException if this is not a class or primitive type or the class can't be found
+		 */
+		public Class<?> getTypeClass() throws ASTInternalException {
+			String typeName = getTypeName();
+			try {
+				return this.arena.resolver.resolve(typeName);
+			} catch (ClassNotFoundException | LinkageError e) {
+				throw new ASTInternalException("jade.tree.TreeArena.TypeNode#getTypeClass()", e);
+			}
+		}
+
+		public IdentifierNode getIdentifier() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getIdentifier()", isIdentifier());
+			return (IdentifierNode) getChild(0);
+		}
+
+		public TypeNode getParameterizedType() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getParameterizedType()", isParameterized());
+			return (TypeNode) getChild(0);
+		}
+
+		public TypeNode[] getTypeParameters() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getTypeParameters()", isParameterized());
+			return getTypesFrom(1);
+		}
+
+		public TypeNode getBoundedType() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getBoundedType()", isBounded());
+			return (TypeNode) getChild(0);
+		}
+
+		public TypeNode[] getImplementedTypes() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getImplementedTypes()", isBounded() && isImplementsBound());
+			return getTypesFrom(1);
+		}
+
+		public BoundsNode getBounds() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getBounds()", isBounded() && isExtendsBound());
+			return (BoundsNode) getChild(1);
+		}
+
+		public TypeNode getSuperType() throws ASTInternalException {
+			check("jade.tree.TreeArena.TypeNode#getSuperType()", isBounded() && isSuperBound());
+			return (TypeNode) getChild(1);
+		}
+
+		private TypeNode[] getTypesFrom(int first) throws ASTInternalException {
+			TypeNode[] types = new TypeNode[getChildCount() - first];
+			for (int t = 0; t < types.length; t++) {
+				types[t] = (TypeNode) getChild(first + t);
+			}
+			return types;
+		}
+
+		private void check(String caller, boolean expected) throws ASTInternalException {
+			if (!expected) {
+				throw new ASTInternalException(caller, new IllegalStateException("Unexpected type " + type() + " and bounded type " + boundedType()));
+			}
+		}
+
+	}
+
+	public static class BoundsNode extends Node {
+
+		protected BoundsNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public TypeNode[] getBoundsAsArray() throws ASTInternalException {
+			TypeNode[] bounds = new TypeNode[getChildCount()];
+			for (int b = 0; b < bounds.length; b++) {
+				bounds[b] = (TypeNode) getChild(b);
+			}
+			return bounds;
+		}
+
+	}
+
+	public static class VariableNode extends Node {
+
+		protected VariableNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public TypeNode getType() throws ASTInternalException {
+			return (TypeNode) getChild(0);
+		}
+
+		public IdentifierNode getIdentifier() throws ASTInternalException {
+			return (IdentifierNode) getChild(1);
+		}
+
+	}
+
+	public static class AccessNode extends Node {
+
+		protected AccessNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public boolean hasFrom() {
+			return (this.arena.flags[this.index] & HAS_FROM) != 0;
+		}
+
+		public IdentifierNode getIdentifier() throws ASTInternalException {
+			return (IdentifierNode) getChild(0);
+		}
+
+		public IdentifierNode getFromIdentifier() throws ASTInternalException {
+			if (!hasFrom()) {
+				throw new ASTInternalException("jade.tree.TreeArena.AccessNode#getFromIdentifier()", new IllegalStateException("Trying to get the from identifier from an access without a from identifier"));
+			}
+			return (IdentifierNode) getChild(1);
+		}
+
+		public BlockNode getBlock() throws ASTInternalException {
+			return (BlockNode) getChild(hasFrom()?2:1);
+		}
+
+	}
+
+	public static class BlockNode extends Node {
+
+		protected BlockNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public Node[] getStatements() throws ASTInternalException {
+			Node[] statements = new Node[getChildCount()];
+			for (int s = 0; s < statements.length; s++) {
+				statements[s] = getChild(s);
+			}
+			return statements;
+		}
+
+	}
+
+	public static class AssignmentNode extends Node {
+
+		protected AssignmentNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public IdentifierNode getIdentifier() throws ASTInternalException {
+			return (IdentifierNode) getChild(0);
+		}
+
+		public ExpressionNode getExpression() throws ASTInternalException {
+			return (ExpressionNode) getChild(1);
+		}
+
+	}
+
+	public static class ExpressionNode extends Node {
+
+		protected ExpressionNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		protected ExpressionTree.Type type() {
+			return EXPRESSION_TYPES[this.arena.flags[this.index] & 0xFF];
+		}
+
+		/**
+		 * @return the ordinal of the value type of constants or of the operator of unary and binary expressions	:	{@code int}
+		 */
+		protected int variant() {
+			return this.arena.flags[this.index] >>> 8;
+		}
+
+		public boolean isConstant() {
+			return type() == ExpressionTree.Type.CONSTANT;
+		}
+
+		public boolean isIdentifier() {
+			return type() == ExpressionTree.Type.IDENTIFIER;
+		}
+
+		public boolean isUnary() {
+			return type() == ExpressionTree.Type.UNARY;
+		}
+
+		public boolean isBinary() {
+			return type() == ExpressionTree.Type.BINARY;
+		}
+
+		public boolean isValid() {
+			return type() != ExpressionTree.Type.INVALID;
+		}
+
+	}
+
+	public static class ConstantNode extends ExpressionNode {
+
+		protected ConstantNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public ExpressionTree.ValueType getValueType() {
+			return VALUE_TYPES[variant()];
+		}
+
+		public int getIntValue() {
+			return getValueType() == ExpressionTree.ValueType.DOUBLE?(int) doubleBits():(int) bits();
+		}
+
+		public long getLongValue() {
+			return getValueType() == ExpressionTree.ValueType.DOUBLE?(long) doubleBits():bits();
+		}
+
+		public double getDoubleValue() {
+			return getValueType() == ExpressionTree.ValueType.DOUBLE?doubleBits():bits();
+		}
+
+		public boolean getBooleanValue() {
+			return getValueType() == ExpressionTree.ValueType.DOUBLE?doubleBits() != 0:bits() != 0;
+		}
+
+		public Object getValue() {
+			switch (getValueType()) {
+				case INT: return Integer.valueOf((int) bits());
+				case LONG: return Long.valueOf(bits());
+				case DOUBLE: return Double.valueOf(doubleBits());
+				default: return Boolean.valueOf(bits() != 0);
+			}
+		}
+
+		private long bits() {
+			return this.arena.constants[this.arena.payloads[this.index]];
+		}
+
+		private double doubleBits() {
+			return Double.longBitsToDouble(bits());
+		}
+
+	}
+
+	public static class IdentifierExpressionNode extends ExpressionNode {
+
+		protected IdentifierExpressionNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public IdentifierNode getIdentifier() throws ASTInternalException {
+			return (IdentifierNode) getChild(0);
+		}
+
+		public String getName() throws ASTInternalException {
+			return getIdentifier().getName();
+		}
+
+	}
+
+	public static class UnaryNode extends ExpressionNode {
+
+		protected UnaryNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public UnaryTree.Operator getOperator() {
+			return UNARY_OPERATORS[variant()];
+		}
+
+		public ExpressionNode getOperand() throws ASTInternalException {
+			return (ExpressionNode) getChild(0);
+		}
+
+	}
+
+	public static class BinaryNode extends ExpressionNode {
+
+		protected BinaryNode(TreeArena arena, int index) {
+			super(arena, index);
+		}
+
+		public BinaryTree.Operator getOperator() {
+			return BINARY_OPERATORS[variant()];
+		}
+
+		public ExpressionNode getLeftOperand() throws ASTInternalException {
+			return (ExpressionNode) getChild(0);
+		}
+
+		public ExpressionNode getRightOperand() throws ASTInternalException {
+			return (ExpressionNode) getChild(1);
+		}
+
+	}
+
+	//------------Views
+
+}
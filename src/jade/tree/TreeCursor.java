@@ -0,0 +1,102 @@
+package jade.tree;
+
+import java.util.Arrays;
+
+/**
+ * Iterative cursor over a {@link Tree} and its descendants, {@code null} childs are not visited
+ * <p>
+ * Modifying the tree while a cursor is traversing it gives undefined results.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TreeCursor extends AbstractTreeCursor {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	protected final Tree root;
+	protected Tree[] nodes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param root	:	the first node of the traversal	:	{@code Tree}
+	 * @param order	:	the order in which nodes are visited	:	{@code AbstractTreeCursor.Order}
+	 */
+	public TreeCursor(Tree root, Order order) {
+		super(order);
+		this.root = root;
+		this.nodes = new Tree[INITIAL_CAPACITY];
+	}
+
+	public static TreeCursor preOrder(Tree root) {
+		return new TreeCursor(root, Order.PRE_ORDER);
+	}
+
+	public static TreeCursor postOrder(Tree root) {
+		return new TreeCursor(root, Order.POST_ORDER);
+	}
+
+	public static TreeCursor breadthFirst(Tree root) {
+		return new TreeCursor(root, Order.BREADTH_FIRST);
+	}
+
+	/**
+	 * @return the current node	:	{@code Tree}
+	 * @throws java.util.NoSuchElementException if {@link AbstractTreeCursor#next()} was not called or returned {@code false}
+	 */
+	public Tree current() {
+		checkCurrent();
+		return this.nodes[this.current];
+	}
+
+	/**
+	 * @return the parent of the current node in the traversal, {@code null} for the root	:	{@code Tree}
+	 * @throws UnsupportedOperationException if the order is breadth-first
+	 */
+	public Tree parent() {
+		int parent = parentSlot();
+		return parent < 0?null:this.nodes[parent];
+	}
+
+	@Override
+	protected int capacity() {
+		return this.nodes.length;
+	}
+
+	@Override
+	protected void grow(int capacity) {
+		this.nodes = Arrays.copyOf(this.nodes, capacity);
+	}
+
+	@Override
+	protected int childCount(int slot) {
+		Tree[] childs = this.nodes[slot].childs;
+		return childs == null?0:childs.length;
+	}
+
+	@Override
+	protected boolean loadChild(int parentSlot, int child, int targetSlot) {
+		Tree node = this.nodes[parentSlot].childs[child];
+		this.nodes[targetSlot] = node;
+		return node != null;
+	}
+
+	@Override
+	protected void moveSlot(int from, int to) {
+		this.nodes[to] = this.nodes[from];
+		this.nodes[from] = null;
+	}
+
+	@Override
+	protected void clearSlot(int slot) {
+		this.nodes[slot] = null;
+	}
+
+	@Override
+	protected boolean loadRoot() {
+		this.nodes[0] = this.root;
+		return this.root != null;
+	}
+
+}
@@ -0,0 +1,53 @@
+package jade.tree;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocates the ids of {@link Tree} nodes
+ * <p>
+ * Each thread reserves blocks of {@link TreeIds#BLOCK_SIZE} consecutive ids from a global atomic counter
+ * and hands them out without any synchronization, so building trees in several threads at the same time
+ * neither contends on a lock nor produces duplicated ids. Ids are unique but, when several threads create
+ * trees, they are not consecutive across threads.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public final class TreeIds {
+
+	/**
+	 * The amount of ids reserved by a thread at a time
+	 */
+	public static final int BLOCK_SIZE = 1024;
+
+	private static final AtomicInteger NEXT_BLOCK = new AtomicInteger(0);
+
+	/**
+	 * The next id and the end (exclusive) of the block reserved by the current thread
+	 */
+	private static final ThreadLocal<int[]> BLOCK = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[]{0, 0};
+		}
+	};
+
+	private TreeIds() {}
+
+	/**
+	 * @return a new unique id	:	{@code int}
+	 */
+	public static int next() {
+		int[] block = BLOCK.get();
+		if (block[0] == block[1]) {
+			int start = NEXT_BLOCK.getAndAdd(BLOCK_SIZE);
+			if (start < 0) {
+				throw new IllegalStateException("jade.tree.TreeIds#next : no ids left");
+			}
+			block[0] = start;
+			block[1] = start + BLOCK_SIZE;
+		}
+		return block[0]++;
+	}
+
+}
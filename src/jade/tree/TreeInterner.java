@@ -0,0 +1,221 @@
+package jade.tree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares structurally identical {@link TypeTree}, {@link BoundsTree} and {@link IdentifierTree} nodes
+ * <p>
+ * Children are interned first so two trees are identical when they have the same kind, the same payload (name,
+ * class or kind of type) and the same children. Identifier names are interned too.
+ * <p>
+ * The trees given to {@link TreeInterner#intern(Tree)} are never modified: the shared instances are copies
+ * made by the interner. Shared instances are frozen ({@link Tree#isFrozen()}), since they are used under many
+ * parents they have no parent and {@link Tree#setChild(Tree, int)} fails on them; to change a shared tree
+ * clone it first.
+ * <p>
+ * The pool is scoped to the interner: use one interner per job and drop it (or call {@link TreeInterner#clear()})
+ * to release the shared nodes.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TreeInterner {
+
+	/**
+	 * The structure of a node, children are compared by identity since they are already interned
+	 */
+	private static final class Key {
+		private final Tree.Kind kind;
+		private final Object payload;
+		private final Tree[] childs;
+		private final int hash;
+
+		private Key(Tree tree, String name, Tree[] childs) {
+			this.kind = tree.getKind();
+			this.payload = payloadOf(tree, name);
+			this.childs = childs;
+			int hash = this.kind.hashCode() * 31 + (this.payload == null?0:this.payload.hashCode());
+			if (this.childs != null) {
+				for (Tree child : this.childs) {
+					hash = hash * 31 + System.identityHashCode(child);
+				}
+			}
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			if (this.hash != other.hash || this.kind != other.kind) {
+				return false;
+			}
+			if (this.payload == null?other.payload != null:!this.payload.equals(other.payload)) {
+				return false;
+			}
+			if (this.childs == null || other.childs == null) {
+				return this.childs == other.childs;
+			}
+			if (this.childs.length != other.childs.length) {
+				return false;
+			}
+			for (int c = 0; c < this.childs.length; c++) {
+				if (this.childs[c] != other.childs[c]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static Object payloadOf(Tree tree, String name) {
+			switch (tree.getKind()) {
+				case IDENTIFIER: return name;
+				case TYPE: {
+					TypeTree type = (TypeTree) tree;
+					return type.type.name() + ' ' + type.boundedType.name() + ' ' + (type.typeName == null?"":type.typeName);
+				}
+				default: return null;
+			}
+		}
+	}
+
+	protected Map<Key, Tree> trees;
+	protected Map<String, String> names;
+
+	public TreeInterner() {
+		this.trees = new HashMap<Key, Tree>();
+		this.names = new HashMap<String, String>();
+	}
+
+	/**
+	 * Returns the shared instance structurally identical to {@code tree}, if there is none yet a frozen copy of
+	 * {@code tree} with its children replaced by their shared instances becomes the shared instance. Trees are
+	 * interned regardless of their parent and {@code tree} is never modified.
+	 *
+	 * @param tree	:	the tree to intern	:	{@code T}
+	 * @return the shared instance, or {@code tree} itself if it or one of its children is not a type, bounds or identifier	:	{@code T}
+	 */
+	public <T extends Tree> T intern(T tree) {
+		return intern(tree, false);
+	}
+
+	/**
+	 * @param owned	:	{@code true} if {@code tree} was created by this interner and is not referenced anywhere else, so it can be shared without copying it	:	{@code boolean}
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Tree> T intern(T tree, boolean owned) {
+		if (tree == null || !isInternable(tree)) {
+			return tree;
+		}
+		Tree[] childs = null;
+		boolean sameChilds = true;
+		if (tree.childs != null) {
+			childs = Arrays.copyOf(tree.childs, tree.childs.length);
+			for (int c = 0; c < childs.length; c++) {
+				Tree child = tree.childs[c];
+				Tree shared = intern(child, false);
+				if (shared != null && !shared.frozen) {
+					return tree;
+				}
+				childs[c] = shared;
+				sameChilds &= shared == child;
+			}
+		}
+		String name = tree.getKind() == Tree.Kind.IDENTIFIER?intern(((IdentifierTree) tree).name):null;
+		Key key = new Key(tree, name, childs);
+		Tree shared = this.trees.get(key);
+		if (shared == null) {
+			if ((owned || tree.frozen) && sameChilds) {
+				shared = tree;
+			} else {
+				shared = tree.copyNode(childs, Tree.getNextID());
+			}
+			if (name != null) {
+				((IdentifierTree) shared).name = name;
+			}
+			shared.frozen = true;
+			this.trees.put(key, shared);
+		}
+		return (T) shared;
+	}
+
+	/**
+	 * @param name	:	the name to intern	:	{@code String}
+	 * @return the shared instance equal to {@code name}	:	{@code String}
+	 */
+	public String intern(String name) {
+		if (name == null) {
+			return null;
+		}
+		String shared = this.names.get(name);
+		if (shared == null) {
+			this.names.put(name, name);
+			return name;
+		}
+		return shared;
+	}
+
+	/**
+	 * @return the shared identifier named {@code name}	:	{@code IdentifierTree}
+	 */
+	public IdentifierTree identifier(String name) {
+		return intern(new IdentifierTree(name), true);
+	}
+
+	/**
+	 * @return the shared class or primitive type for {@code typeClass}	:	{@code TypeTree}
+	 */
+	public TypeTree type(Class<?> typeClass) {
+		return intern(new TypeTree(typeClass), true);
+	}
+
+	/**
+	 * @return the shared class or primitive type with binary name {@code typeName}, the class is not loaded	:	{@code TypeTree}
+	 */
+	public TypeTree namedType(String typeName) {
+		return intern(new TypeTree(intern(typeName)), true);
+	}
+
+	/**
+	 * @return the shared identifier type named {@code name}	:	{@code TypeTree}
+	 */
+	public TypeTree type(String name) {
+		return intern(new TypeTree(identifier(name)), true);
+	}
+
+	/**
+	 * @return the amount of shared trees	:	{@code int}
+	 */
+	public int size() {
+		return this.trees.size();
+	}
+
+	/**
+	 * Releases every shared tree and name, trees already returned are not affected
+	 */
+	public void clear() {
+		this.trees.clear();
+		this.names.clear();
+	}
+
+	private static boolean isInternable(Tree tree) {
+		switch (tree.getKind()) {
+			case IDENTIFIER:
+			case TYPE:
+			case BOUNDS:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+}
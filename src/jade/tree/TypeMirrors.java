@@ -0,0 +1,143 @@
+package jade.tree;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+
+import jade.exceptions.ASTInternalException;
+
+/**
+ * Creates {@link TypeTree} nodes from javac's {@code TypeMirror}s
+ * <p>
+ * Class and primitive types only keep the binary name of the type, so describing the types of a codebase
+ * doesn't load any class into the running JVM; see {@link TypeTree#getTypeClass()}.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public final class TypeMirrors {
+
+	private TypeMirrors() {}
+
+	/**
+	 * Converts a type:
+	 * <p>
+	 * <li> primitive types, {@code void}, arrays and declared types without type arguments become class or primitive types </li>
+	 * <li> declared types with type arguments become parameterized types </li>
+	 * <li> type variables become identifier types </li>
+	 * <li> wildcards become bounded types over the identifier {@code ?} </li>
+	 *
+	 * @param type	:	the type to convert	:	{@code TypeMirror}
+	 * @return a new type tree describing {@code type}	:	{@code TypeTree}
+	 * @throws ASTInternalException if {@code type} has no JADE representation, like an erroneous or executable type
+	 */
+	public static TypeTree toTypeTree(TypeMirror type) throws ASTInternalException {
+		switch (type.getKind()) {
+			case DECLARED: {
+				DeclaredType declared = (DeclaredType) type;
+				TypeTree erasure = new TypeTree(binaryName((TypeElement) declared.asElement()));
+				List<? extends TypeMirror> typeArguments = declared.getTypeArguments();
+				if (typeArguments.isEmpty()) {
+					return erasure;
+				}
+				TypeTree[] typeParameters = new TypeTree[typeArguments.size()];
+				for (int tp = 0; tp < typeParameters.length; tp++) {
+					typeParameters[tp] = toTypeTree(typeArguments.get(tp));
+				}
+				return new TypeTree(erasure, typeParameters, true);
+			}
+			case TYPEVAR: return new TypeTree(new IdentifierTree(((TypeVariable) type).asElement().getSimpleName().toString()));
+			case WILDCARD: {
+				WildcardType wildcard = (WildcardType) type;
+				TypeTree unknown = new TypeTree(new IdentifierTree("?"));
+				if (wildcard.getExtendsBound() != null) {
+					return new TypeTree(unknown, new BoundsTree(toTypeTree(wildcard.getExtendsBound())));
+				}
+				if (wildcard.getSuperBound() != null) {
+					return new TypeTree(unknown, toTypeTree(wildcard.getSuperBound()));
+				}
+				return unknown;
+			}
+			default: {
+				String binaryName = binaryName(type);
+				if (binaryName == null) {
+					throw new ASTInternalException("jade.tree.TypeMirrors#toTypeTree", new IllegalArgumentException("no JADE type for " + type + " of kind " + type.getKind()));
+				}
+				return new TypeTree(binaryName);
+			}
+		}
+	}
+
+	/**
+	 * @param type	:	the type	:	{@code TypeMirror}
+	 * @return the binary name of the erasure of {@code type} as returned by {@link Class#getName()}, or {@code null} if {@code type} is not a primitive, {@code void}, array or declared type	:	{@code String}
+	 */
+	public static String binaryName(TypeMirror type) {
+		TypeKind kind = type.getKind();
+		if (kind.isPrimitive() || kind == TypeKind.VOID) {
+			return kind.name().toLowerCase(Locale.ROOT);
+		}
+		switch (kind) {
+			case DECLARED: return binaryName((TypeElement) ((DeclaredType) type).asElement());
+			case ARRAY: {
+				String descriptor = descriptor(((ArrayType) type).getComponentType());
+				return descriptor == null?null:'[' + descriptor;
+			}
+			default: return null;
+		}
+	}
+
+	/**
+	 * Nested classes are separated from their enclosing class with {@code $}; local and anonymous classes
+	 * have no name outside of their compilation unit and are named as javac reports them
+	 *
+	 * @param type	:	the class or interface	:	{@code TypeElement}
+	 * @return the binary name of {@code type}	:	{@code String}
+	 */
+	public static String binaryName(TypeElement type) {
+		Element enclosing = type.getEnclosingElement();
+		if (enclosing != null && isType(enclosing.getKind())) {
+			return binaryName((TypeElement) enclosing) + '$' + type.getSimpleName();
+		}
+		return type.getQualifiedName().toString();
+	}
+
+	private static String descriptor(TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN: return "Z";
+			case BYTE: return "B";
+			case CHAR: return "C";
+			case SHORT: return "S";
+			case INT: return "I";
+			case LONG: return "J";
+			case FLOAT: return "F";
+			case DOUBLE: return "D";
+			case ARRAY: return binaryName(type);
+			case DECLARED: return 'L' + binaryName(type) + ';';
+			case TYPEVAR: return descriptor(((TypeVariable) type).getUpperBound());
+			default: return null;
+		}
+	}
+
+	private static boolean isType(ElementKind kind) {
+		switch (kind) {
+			case CLASS:
+			case INTERFACE:
+			case ENUM:
+			case ANNOTATION_TYPE:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+}
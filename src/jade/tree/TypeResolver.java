@@ -0,0 +1,63 @@
+package jade.tree;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the symbolic names of {@link TypeTree} class and primitive types to {@code Class} objects
+ * <p>
+ * Names are binary names as returned by {@link Class#getName()} ({@code java.util.Map$Entry},
+ * {@code [Ljava.lang.String;}, {@code int}). Classes are loaded with {@link Class#forName(String, boolean, ClassLoader)}
+ * without initializing them, and only when a type is actually asked for its class, so describing types
+ * doesn't load anything. Subclasses can resolve names in other ways.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TypeResolver {
+
+	/**
+	 * Resolves names with the class loader that loaded JADE
+	 */
+	public static final TypeResolver DEFAULT = new TypeResolver(TypeResolver.class.getClassLoader());
+
+	private static final Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>();
+	static {
+		Class<?>[] primitives = {boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class, void.class};
+		for (Class<?> primitive : primitives) {
+			PRIMITIVES.put(primitive.getName(), primitive);
+		}
+	}
+
+	protected final ClassLoader loader;
+
+	/**
+	 * Constructor
+	 *
+	 * @param loader	:	the class loader used to load classes, {@code null} means the bootstrap class loader	:	{@code ClassLoader}
+	 */
+	public TypeResolver(ClassLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * @param typeName	:	the binary name of a class or primitive type	:	{@code String}
+	 * @return the class named {@code typeName}, not initialized	:	{@code Class<?>}
+	 * @throws ClassNotFoundException if there is no class named {@code typeName}
+	 */
+	public Class<?> resolve(String typeName) throws ClassNotFoundException {
+		Class<?> primitive = PRIMITIVES.get(typeName);
+		if (primitive != null) {
+			return primitive;
+		}
+		return Class.forName(typeName, false, this.loader);
+	}
+
+	/**
+	 * @return {@code true} if {@code typeName} is the name of a primitive type or {@code void}	:	{@code boolean}
+	 */
+	public static boolean isPrimitive(String typeName) {
+		return PRIMITIVES.containsKey(typeName);
+	}
+
+}
@@ -2,8 +2,8 @@ package jade.tree;
 
 import jade.exceptions.ASTInternalException;
 
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -16,6 +16,9 @@ import java.util.Set;
  * <li> a parameterized type like Type<TypeParameters></li>
  * <li> a bounded type like T (implements Types)|(extends Bounds)|(super Type)</li>
  * <p>
+ * Class and primitive types are described by their binary name, the {@code Class} is only loaded when
+ * {@link TypeTree#getTypeClass()} is called, using the {@link TypeResolver} of the type.
+ * <p>
  * 
  * @author Simon Emmanuel Gutierrez Brida
  * @version 0.1u
@@ -23,12 +26,41 @@ import java.util.Set;
  * @see BoundsTree
  */
 public class TypeTree extends Tree {
-	private static enum Type {CLASS, PRIMITIVE, IDENTIFIER, PARAMETERIZED, BOUNDED, INVALID};
-	private static enum BoundedType {IMPLEMENTS, EXTENDS, SUPER, NONE};
+	static enum Type {CLASS, PRIMITIVE, IDENTIFIER, PARAMETERIZED, BOUNDED, INVALID};
+	static enum BoundedType {IMPLEMENTS, EXTENDS, SUPER, NONE};
+	
+	//+++++++++++Expected states of the getters
+	
+	private static final Set<Type> EXPECTED_CLASS_OR_PRIMITIVE = Collections.unmodifiableSet(EnumSet.of(Type.CLASS, Type.PRIMITIVE));
+	private static final Set<Type> EXPECTED_IDENTIFIER = Collections.unmodifiableSet(EnumSet.of(Type.IDENTIFIER));
+	private static final Set<Type> EXPECTED_PARAMETERIZED = Collections.unmodifiableSet(EnumSet.of(Type.PARAMETERIZED));
+	private static final Set<Type> EXPECTED_BOUNDED = Collections.unmodifiableSet(EnumSet.of(Type.BOUNDED));
+	private static final Set<BoundedType> EXPECTED_BOUND_NONE = Collections.unmodifiableSet(EnumSet.of(BoundedType.NONE));
+	private static final Set<BoundedType> EXPECTED_BOUND_ANY_BOUND = Collections.unmodifiableSet(EnumSet.of(BoundedType.EXTENDS, BoundedType.IMPLEMENTS, BoundedType.SUPER));
+	private static final Set<BoundedType> EXPECTED_BOUND_IMPLEMENTS = Collections.unmodifiableSet(EnumSet.of(BoundedType.IMPLEMENTS));
+	private static final Set<BoundedType> EXPECTED_BOUND_EXTENDS = Collections.unmodifiableSet(EnumSet.of(BoundedType.EXTENDS));
+	private static final Set<BoundedType> EXPECTED_BOUND_SUPER = Collections.unmodifiableSet(EnumSet.of(BoundedType.SUPER));
+	
+	//-----------Expected states of the getters
 	
 	protected Type type;
+	/**
+	 * The binary name of class and primitive types
+	 */
+	protected String typeName = null;
+	/**
+	 * The class named {@link TypeTree#typeName}, resolved on first use
+	 */
 	protected Class<?> typeClass = null;
+	/**
+	 * The resolver used for {@link TypeTree#typeName}, {@code null} means {@link TypeResolver#DEFAULT}
+	 */
+	protected TypeResolver resolver = null;
 	protected BoundedType boundedType;
+	/**
+	 * The view returned by {@link TypeTree#getTypeParameters()} or {@link TypeTree#getImplementedTypes()}, created on first use
+	 */
+	protected ChildRange<TypeTree> typeArguments = null;
 
 	protected TypeTree(Tree parent, Tree[] childs) {
 		super(parent, childs);
@@ -39,9 +71,7 @@ public class TypeTree extends Tree {
 	//+++++++++++Class/Primitive type constructors
 	
 	public TypeTree(Tree parent, Class<?> typeClass) {
-		super(parent, null);
-		this.type = typeClass.isPrimitive()?Type.PRIMITIVE:Type.CLASS;
-		this.boundedType = BoundedType.NONE;
+		this(parent, typeClass.getName());
 		this.typeClass = typeClass;
 	}
 	
@@ -49,6 +79,28 @@ public class TypeTree extends Tree {
 		this(null, typeClass);
 	}
 	
+	/**
+	 * Constructor
+	 * <p>
+	 * Creates a class or primitive type without loading the class
+	 * 
+	 * @param parent	:	the parent (if any) of this type	:	{@code Tree}
+	 * @param typeName	:	the binary name of the type, as returned by {@link Class#getName()}	:	{@code String}
+	 */
+	public TypeTree(Tree parent, String typeName) {
+		super(parent, null);
+		if (typeName == null) {
+			throw new IllegalArgumentException("jade.tree.TypeTree : null type name");
+		}
+		this.type = TypeResolver.isPrimitive(typeName)?Type.PRIMITIVE:Type.CLASS;
+		this.boundedType = BoundedType.NONE;
+		this.typeName = typeName;
+	}
+	
+	public TypeTree(String typeName) {
+		this(null, typeName);
+	}
+	
 	//-----------Class/Primitive type constructors
 	
 	//+++++++++++Identifier type constructors
@@ -79,6 +131,7 @@ public class TypeTree extends Tree {
 			}
 		}
 		this.childs = contents;
+		adoptChilds();
 	}
 	
 	public TypeTree(Tree parent, TypeTree parameterizedType, List<TypeTree> typeParameters, boolean parameterized) {
@@ -169,62 +222,100 @@ public class TypeTree extends Tree {
 	
 	//+++++++++++Members getters
 	
-	@SuppressWarnings("unchecked")
+	/**
+	 * @return the binary name of this class or primitive type	:	{@code String}
+	 * @throws ASTInternalException if this is not a class or primitive type
+	 */
+	public String getTypeName() throws ASTInternalException {
+		checkValidState("jade.tree.TypeTree#getTypeName()");
+		checkExpectedState("jade.tree.TypeTree#getTypeName()", EXPECTED_CLASS_OR_PRIMITIVE, EXPECTED_BOUND_NONE);
+		return this.typeName;
+	}
+	
+	/**
+	 * Resolves the class of this type on first use, the class is loaded but not initialized
+	 * 
+	 * @return the class of this class or primitive type	:	{@code Class<?>}
+	 * @throws ASTInternalException if this is not a class or primitive type or the class can't be found
+	 */
 	public Class<?> getTypeClass() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getClass()");
-		checkExpectedState("jade.tree.TypeTree#getClass()", (Set<Type>) Arrays.asList(new Type[]{Type.CLASS, Type.PRIMITIVE}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.NONE}));
+		checkExpectedState("jade.tree.TypeTree#getClass()", EXPECTED_CLASS_OR_PRIMITIVE, EXPECTED_BOUND_NONE);
+		if (this.typeClass == null) {
+			try {
+				this.typeClass = (this.resolver == null?TypeResolver.DEFAULT:this.resolver).resolve(this.typeName);
+			} catch (ClassNotFoundException | LinkageError e) {
+				throw new ASTInternalException("jade.tree.TypeTree#getClass()", e);
+			}
+		}
 		return this.typeClass;
 	}
 	
-	@SuppressWarnings("unchecked")
+	/**
+	 * @return {@code true} if the class of this type was already loaded	:	{@code boolean}
+	 */
+	public boolean isResolved() {
+		return this.typeClass != null;
+	}
+	
+	/**
+	 * Sets the resolver used by {@link TypeTree#getTypeClass()}, a class already resolved is kept
+	 * 
+	 * @param resolver	:	the resolver, {@code null} means {@link TypeResolver#DEFAULT}	:	{@code TypeResolver}
+	 */
+	public void setResolver(TypeResolver resolver) {
+		this.resolver = resolver;
+	}
+	
 	public IdentifierTree getIdentifier() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getIdentifier()");
-		checkExpectedState("jade.tree.TypeTree#getIdentifier()", (Set<Type>) Arrays.asList(new Type[]{Type.IDENTIFIER}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.NONE}));
+		checkExpectedState("jade.tree.TypeTree#getIdentifier()", EXPECTED_IDENTIFIER, EXPECTED_BOUND_NONE);
 		return (IdentifierTree) getChild(0);
 	}
 	
-	@SuppressWarnings("unchecked")
 	public TypeTree getParameterizedType() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getParameterizedType()");
-		checkExpectedState("jade.tree.TypeTree#getParameterizedType()", (Set<Type>) Arrays.asList(new Type[]{Type.PARAMETERIZED}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.NONE}));
+		checkExpectedState("jade.tree.TypeTree#getParameterizedType()", EXPECTED_PARAMETERIZED, EXPECTED_BOUND_NONE);
 		return (TypeTree) getChild(0);
 	}
 	
-	@SuppressWarnings("unchecked")
-	public TypeTree[] getTypeParameters() throws ASTInternalException {
+	public List<TypeTree> getTypeParameters() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getTypeParameters()");
-		checkExpectedState("jade.tree.TypeTree#getTypeParameters()", (Set<Type>) Arrays.asList(new Type[]{Type.PARAMETERIZED}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.NONE}));
-		return (TypeTree[]) getChilds(1, this.childs.length - 1);
+		checkExpectedState("jade.tree.TypeTree#getTypeParameters()", EXPECTED_PARAMETERIZED, EXPECTED_BOUND_NONE);
+		return getTypeArguments();
 	}
 	
-	@SuppressWarnings("unchecked")
 	public TypeTree getBoundedType() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getBoundedType()");
-		checkExpectedState("jade.tree.TypeTree#getBoundedType()", (Set<Type>) Arrays.asList(new Type[]{Type.BOUNDED}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.EXTENDS, BoundedType.IMPLEMENTS, BoundedType.SUPER}));
+		checkExpectedState("jade.tree.TypeTree#getBoundedType()", EXPECTED_BOUNDED, EXPECTED_BOUND_ANY_BOUND);
 		return (TypeTree) getChild(0);
 	}
 	
-	@SuppressWarnings("unchecked")
-	public TypeTree[] getImplementedTypes() throws ASTInternalException {
+	public List<TypeTree> getImplementedTypes() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getImplementedTypes()");
-		checkExpectedState("jade.tree.TypeTree#getImplementedTypes()", (Set<Type>) Arrays.asList(new Type[]{Type.PARAMETERIZED}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.IMPLEMENTS}));
-		return (TypeTree[]) getChilds(1, this.childs.length - 1);
+		checkExpectedState("jade.tree.TypeTree#getImplementedTypes()", EXPECTED_BOUNDED, EXPECTED_BOUND_IMPLEMENTS);
+		return getTypeArguments();
 	}
 	
-	@SuppressWarnings("unchecked")
 	public BoundsTree getBounds() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getBounds()");
-		checkExpectedState("jade.tree.TypeTree#getBounds()", (Set<Type>) Arrays.asList(new Type[]{Type.BOUNDED}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.EXTENDS}));
+		checkExpectedState("jade.tree.TypeTree#getBounds()", EXPECTED_BOUNDED, EXPECTED_BOUND_EXTENDS);
 		return (BoundsTree) getChild(1);
 	}
 	
-	@SuppressWarnings("unchecked")
 	public TypeTree getSuperType() throws ASTInternalException {
 		checkValidState("jade.tree.TypeTree#getSuperType()");
-		checkExpectedState("jade.tree.TypeTree#getSuperType()", (Set<Type>) Arrays.asList(new Type[]{Type.BOUNDED}), (Set<BoundedType>) Arrays.asList(new BoundedType[]{BoundedType.EXTENDS}));
+		checkExpectedState("jade.tree.TypeTree#getSuperType()", EXPECTED_BOUNDED, EXPECTED_BOUND_SUPER);
 		return (TypeTree) getChild(1);
 	}
 	
+	private List<TypeTree> getTypeArguments() throws ASTInternalException {
+		if (this.typeArguments == null) {
+			this.typeArguments = getChildRange(1, this.childs.length - 1);
+		}
+		return this.typeArguments;
+	}
+	
 	//-----------Members getters
 	
 	//+++++++++++Validators (private)
@@ -237,34 +328,57 @@ public class TypeTree extends Tree {
 	
 	private void checkExpectedState(String caller, Set<Type> expectedTypes, Set<BoundedType> expectedBoundedTypes) throws ASTInternalException {
 		boolean expectedTypeValid = expectedTypes.contains(this.type);
-		boolean expectedBoundedTypeValid = expectedBoundedTypes==null?true:expectedBoundedTypes.contains(this.boundedType);
-		String expectedTypesAsString = "";
-		String expectedBoundedTypesAsString = "";
-		Iterator<Type> expectedTypesIt = expectedTypes.iterator();
-		while (expectedTypesIt.hasNext()) {
-			expectedTypesAsString += expectedTypesIt.next().toString();
-			if (expectedTypesIt.hasNext()) {
-				expectedTypesAsString += " or ";
-			}
-		}
-		if (expectedBoundedTypes != null) {
-			Iterator<BoundedType> expectedBoundedTypesIt = expectedBoundedTypes.iterator();
-			while (expectedBoundedTypesIt.hasNext()) {
-				expectedBoundedTypesAsString += expectedBoundedTypesIt.next().toString();
-				if (expectedBoundedTypesIt.hasNext()) {
-					expectedBoundedTypesAsString += " or ";
-				}
-			}
+		boolean expectedBoundedTypeValid = expectedBoundedTypes.contains(this.boundedType);
+		if (expectedTypeValid && expectedBoundedTypeValid) {
+			return;
 		}
 		if (!expectedTypeValid && expectedBoundedTypeValid) {
-			throw new ASTInternalException(caller, new IllegalStateException("Expecting type to be one of : " + expectedTypesAsString + " but got " + this.type.toString() + " instead"));
-		} else if (!expectedTypeValid && !expectedBoundedTypeValid) {
-			throw new ASTInternalException(caller, new IllegalStateException("Expecting type to be one of : " + expectedTypesAsString + " and bounded type to be one of : " + expectedBoundedTypesAsString + " but got " + this.type.toString() + " and " + this.boundedType.toString() + " instead"));
-		} else if (expectedTypeValid && !expectedBoundedTypeValid) {
-			throw new ASTInternalException(caller, new IllegalStateException("Expecting bounded type to be one of : " + expectedBoundedTypesAsString + " but got " + this.boundedType.toString() + " instead"));
+			throw new ASTInternalException(caller, new IllegalStateException("Expecting type to be one of : " + join(expectedTypes) + " but got " + this.type.toString() + " instead"));
+		} else if (!expectedTypeValid) {
+			throw new ASTInternalException(caller, new IllegalStateException("Expecting type to be one of : " + join(expectedTypes) + " and bounded type to be one of : " + join(expectedBoundedTypes) + " but got " + this.type.toString() + " and " + this.boundedType.toString() + " instead"));
+		} else {
+			throw new ASTInternalException(caller, new IllegalStateException("Expecting bounded type to be one of : " + join(expectedBoundedTypes) + " but got " + this.boundedType.toString() + " instead"));
 		}
 	}
 	
+	private static String join(Set<? extends Enum<?>> values) {
+		StringBuilder joined = new StringBuilder();
+		for (Enum<?> value : values) {
+			if (joined.length() > 0) {
+				joined.append(" or ");
+			}
+			joined.append(value.toString());
+		}
+		return joined.toString();
+	}
+	
 	//-----------Validators (private)
+	
+	@Override
+	protected int payloadHash() {
+		int hash = this.type.ordinal() * 31 + this.boundedType.ordinal();
+		return hash * 31 + (this.typeName == null?0:this.typeName.hashCode());
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		TypeTree otherType = (TypeTree) other;
+		return this.type == otherType.type && this.boundedType == otherType.boundedType && (this.typeName == null?otherType.typeName == null:this.typeName.equals(otherType.typeName));
+	}
+	
+	@Override
+	protected void clearViews() {
+		this.typeArguments = null;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitType(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.TYPE;
+	}
 
 }
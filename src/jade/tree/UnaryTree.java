@@ -0,0 +1,80 @@
+package jade.tree;
+
+import jade.exceptions.ASTInternalException;
+
+/**
+ * Represents an unary expression : {@link UnaryTree.Operator} {@link ExpressionTree}
+ * 
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ * @see ExpressionTree
+ */
+public class UnaryTree extends ExpressionTree {
+	
+	public static enum Operator {
+		/** {@code -}, numeric */
+		NEGATE("-"),
+		/** {@code !}, boolean */
+		NOT("!"),
+		/** {@code ~}, integral */
+		COMPLEMENT("~");
+		
+		private final String symbol;
+		
+		private Operator(String symbol) {
+			this.symbol = symbol;
+		}
+		
+		public String getSymbol() {
+			return this.symbol;
+		}
+	};
+	
+	protected Operator operator;
+
+	protected UnaryTree(Tree parent, Tree[] childs) {
+		super(parent, childs);
+		this.type = Type.UNARY;
+	}
+	
+	//+++++++++++Constructors
+	
+	public UnaryTree(Tree parent, Operator operator, ExpressionTree operand) {
+		this(parent, new Tree[]{operand});
+		this.operator = operator;
+	}
+	
+	public UnaryTree(Operator operator, ExpressionTree operand) {
+		this(null, operator, operand);
+	}
+	
+	//-----------Constructors
+	
+	//+++++++++++Getters
+	
+	public Operator getOperator() {
+		return this.operator;
+	}
+	
+	public ExpressionTree getOperand() throws ASTInternalException {
+		return (ExpressionTree) getChild(0);
+	}
+	
+	//-----------Getters
+	
+	@Override
+	protected int payloadHash() {
+		return super.payloadHash() * 31 + this.operator.ordinal();
+	}
+	
+	@Override
+	protected boolean payloadEquals(Tree other) {
+		return super.payloadEquals(other) && this.operator == ((UnaryTree) other).operator;
+	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitUnary(this, p);
+	}
+
+}
@@ -35,5 +35,15 @@ public class VariableTree extends Tree {
 	public IdentifierTree getIdentifier() throws ASTInternalException {
 		return (IdentifierTree) getChild(1);
 	}
+	
+	@Override
+	public <R, P> R accept(JadeTreeVisitor<R, P> visitor, P p) {
+		return visitor.visitVariable(this, p);
+	}
+	
+	@Override
+	public Kind getKind() {
+		return Kind.VARIABLE;
+	}
 
 }
@@ -0,0 +1,131 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the cost of parsing and collecting a source file
+ * <p>
+ * Without history the cost of a file is its size in bytes. When timings from a previous run are
+ * available the cost is given in nanoseconds: files with a recorded timing use that timing (scaled by
+ * the change in size) and the rest use the average nanoseconds per byte observed in the previous run.
+ * <p>
+ * Timings are stored as a text file with one {@code nanos	bytes	path} line per file.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class CostModel {
+
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * Timings loaded from a previous run, as {nanos, bytes}
+	 */
+	protected Map<String, long[]> history;
+	/**
+	 * Timings recorded during this run, as {nanos, bytes}
+	 */
+	protected Map<String, long[]> recorded;
+	protected double nanosPerByte = 0.0;
+
+	public CostModel() {
+		this.history = new ConcurrentHashMap<String, long[]>();
+		this.recorded = new ConcurrentHashMap<String, long[]>();
+	}
+
+	/**
+	 * Loads the timings of a previous run, a missing file means no history
+	 *
+	 * @param timings	:	the timings file	:	{@code File}
+	 * @throws IOException
+	 */
+	public void load(File timings) throws IOException {
+		if (!timings.isFile()) {
+			return;
+		}
+		List<String> lines = Files.readAllLines(timings.toPath(), Charset.forName("UTF-8"));
+		long totalNanos = 0;
+		long totalBytes = 0;
+		for (String line : lines) {
+			String[] fields = line.split(SEPARATOR, 3);
+			if (fields.length != 3) {
+				continue;
+			}
+			long nanos;
+			long bytes;
+			try {
+				nanos = Long.parseLong(fields[0]);
+				bytes = Long.parseLong(fields[1]);
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			this.history.put(fields[2], new long[]{nanos, bytes});
+			totalNanos += nanos;
+			totalBytes += bytes;
+		}
+		this.nanosPerByte = totalBytes == 0 ? 0.0 : ((double) totalNanos) / totalBytes;
+	}
+
+	/**
+	 * Saves the timings recorded during this run, timings of files not processed in this run are kept
+	 *
+	 * @param timings	:	the timings file	:	{@code File}
+	 * @throws IOException
+	 */
+	public void save(File timings) throws IOException {
+		Map<String, long[]> toSave = new ConcurrentHashMap<String, long[]>(this.history);
+		toSave.putAll(this.recorded);
+		try (BufferedWriter writer = Files.newBufferedWriter(timings.toPath(), Charset.forName("UTF-8"))) {
+			for (Entry<String, long[]> timing : toSave.entrySet()) {
+				writer.write(timing.getValue()[0] + SEPARATOR + timing.getValue()[1] + SEPARATOR + timing.getKey());
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} if timings from a previous run were loaded
+	 */
+	public boolean hasHistory() {
+		return !this.history.isEmpty();
+	}
+
+	/**
+	 * @param file	:	the file to estimate	:	{@code File}
+	 * @return the estimated cost of {@code file}, in bytes or nanoseconds (see {@link CostModel})	:	{@code long}
+	 */
+	public long estimate(File file) {
+		long bytes = Math.max(1, file.length());
+		if (!hasHistory()) {
+			return bytes;
+		}
+		long[] past = this.history.get(key(file));
+		if (past != null && past[1] > 0) {
+			return Math.max(1, (long) (past[0] * (((double) bytes) / past[1])));
+		}
+		return Math.max(1, (long) (bytes * this.nanosPerByte));
+	}
+
+	/**
+	 * Records the time spent processing a file in this run, safe to call from several threads
+	 *
+	 * @param file	:	the processed file	:	{@code File}
+	 * @param nanos	:	the time spent	:	{@code long}
+	 */
+	public void record(File file, long nanos) {
+		this.recorded.put(key(file), new long[]{nanos, file.length()});
+	}
+
+	protected String key(File file) {
+		return file.getAbsolutePath();
+	}
+
+}
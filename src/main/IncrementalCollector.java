@@ -0,0 +1,325 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import visitor.CollectorConfiguration;
+import visitor.Environment;
+import visitor.EnvironmentWriter;
+import visitor.MappedEnvironment;
+import visitor.SignatureCollectorVisitor;
+import visitor.SignatureFingerprint;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Trees;
+
+/**
+ * Collects signatures reusing the results of previous runs for unchanged files
+ * <p>
+ * Every compilation unit is collected into its own environment and saved in the cache directory using
+ * {@link EnvironmentWriter}. A manifest in the same directory keeps, for every file, the hash of its
+ * content and its {@link SignatureFingerprint}, together with a fingerprint of everything else that can
+ * change the result of a collection (class path, source roots, JDK, configuration and format version);
+ * if that fingerprint changes the whole cache is discarded.
+ * <p>
+ * Only files whose content changed (or that are not cached) are parsed and visited. When the signature
+ * hash of a collected file changes, or a file is removed, every unchanged file referencing one of the types
+ * it declares is collected again, since the types javac gives to its trees may have changed; this is repeated
+ * until no more files are affected.
+ * <p>
+ * The manifest is a text file with a {@code fingerprint	hash} first line followed by one
+ * {@code path	contentHash	signatureHash	declaredTypes	referencedNames} line per file, names are separated by spaces.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class IncrementalCollector {
+
+	private static final String MANIFEST = "manifest";
+	private static final String SEPARATOR = "\t";
+	private static final String NAME_SEPARATOR = " ";
+	private static final String CACHE_EXTENSION = ".jenv";
+
+	/**
+	 * What is known about a collected file
+	 */
+	protected static class Record {
+		protected String contentHash;
+		protected SignatureFingerprint fingerprint;
+
+		protected Record(String contentHash, SignatureFingerprint fingerprint) {
+			this.contentHash = contentHash;
+			this.fingerprint = fingerprint;
+		}
+	}
+
+	protected final File cacheDir;
+	protected final CollectorConfiguration configuration;
+	protected final JavaCompiler javac;
+	protected Map<String, Record> manifest;
+	protected int collected = 0;
+	protected int reused = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param cacheDir		:	the directory holding the manifest and the cached results, created if missing	:	{@code File}
+	 * @param configuration	:	the configuration of the collection	:	{@code CollectorConfiguration}
+	 */
+	public IncrementalCollector(File cacheDir, CollectorConfiguration configuration) {
+		this.cacheDir = cacheDir;
+		this.configuration = configuration;
+		this.javac = ToolProvider.getSystemJavaCompiler();
+		this.manifest = new HashMap<String, Record>();
+	}
+
+	/**
+	 * Collects {@code sources}, updating the cache, and writes the environment of every source in the format
+	 * read by {@link MappedEnvironment}
+	 *
+	 * @param sources	:	the sources to process	:	{@code SourceFiles}
+	 * @param out		:	the file where the environment of all the sources is written	:	{@code File}
+	 * @throws IOException
+	 */
+	public void collect(SourceFiles sources, File out) throws IOException {
+		if (!this.cacheDir.isDirectory() && !this.cacheDir.mkdirs()) {
+			throw new IOException("main.IncrementalCollector#collect : can't create cache directory " + this.cacheDir);
+		}
+		String fingerprint = fingerprint(sources);
+		loadManifest(fingerprint);
+		this.collected = 0;
+		this.reused = 0;
+		Map<String, File> files = new LinkedHashMap<String, File>();
+		for (File file : sources.getFiles()) {
+			files.put(key(file), file);
+		}
+		Set<String> changedTypes = new HashSet<String>();
+		for (String removed : new LinkedList<String>(this.manifest.keySet())) {
+			if (!files.containsKey(removed)) {
+				changedTypes.addAll(this.manifest.remove(removed).fingerprint.getDeclaredTypes());
+				Files.deleteIfExists(cacheFile(removed).toPath());
+			}
+		}
+		Map<String, String> contentHashes = new HashMap<String, String>();
+		List<File> dirty = new LinkedList<File>();
+		for (Entry<String, File> file : files.entrySet()) {
+			String contentHash = SignatureFingerprint.hash(Files.readAllBytes(file.getValue().toPath()));
+			contentHashes.put(file.getKey(), contentHash);
+			Record record = this.manifest.get(file.getKey());
+			if (record == null || !record.contentHash.equals(contentHash) || !cacheFile(file.getKey()).isFile()) {
+				dirty.add(file.getValue());
+			}
+		}
+		Set<String> done = new HashSet<String>();
+		while (!dirty.isEmpty() || !changedTypes.isEmpty()) {
+			for (File file : dirty) {
+				done.add(key(file));
+			}
+			changedTypes.addAll(collectFiles(dirty, sources.getSourceRoots(), contentHashes));
+			dirty = new LinkedList<File>();
+			for (Entry<String, File> file : files.entrySet()) {
+				Record record = this.manifest.get(file.getKey());
+				if (!done.contains(file.getKey()) && record != null && record.fingerprint.references(changedTypes)) {
+					dirty.add(file.getValue());
+				}
+			}
+			changedTypes.clear();
+		}
+		this.reused = files.size() - this.collected;
+		saveManifest(fingerprint);
+		EnvironmentWriter writer = new EnvironmentWriter();
+		for (String file : files.keySet()) {
+			try (MappedEnvironment cached = MappedEnvironment.open(cacheFile(file))) {
+				writer.add(cached);
+			}
+		}
+		writer.save(out);
+	}
+
+	/**
+	 * Parses and collects {@code files} with a single {@code JavacTask}, saving the result of each one in the cache
+	 *
+	 * @return the types declared by the collected files whose signature hash changed	:	{@code Set<String>}
+	 */
+	private Set<String> collectFiles(List<File> files, List<File> sourceRoots, Map<String, String> contentHashes) throws IOException {
+		Set<String> changedTypes = new HashSet<String>();
+		if (files.isEmpty()) {
+			return changedTypes;
+		}
+		StandardJavaFileManager jfm = this.javac.getStandardFileManager(null, null, null);
+		try {
+			if (!sourceRoots.isEmpty()) {
+				jfm.setLocation(StandardLocation.SOURCE_PATH, sourceRoots);
+			}
+			Iterable<? extends JavaFileObject> javaFileObjects = jfm.getJavaFileObjectsFromFiles(files);
+			JavacTask task = (JavacTask) this.javac.getTask(null, jfm, null, null, null, javaFileObjects);
+			Iterable<? extends CompilationUnitTree> asts = task.parse();
+			if (this.configuration.isComputeTypes()) {
+				task.analyze();
+			}
+			Trees trees = Trees.instance(task);
+			SignatureCollectorVisitor signatureCollectorVisitor = new SignatureCollectorVisitor(trees, this.configuration);
+			for (CompilationUnitTree ast : asts) {
+				String file = key(new File(ast.getSourceFile().toUri()));
+				Environment astEnv = signatureCollectorVisitor.createEnvironment();
+				signatureCollectorVisitor.visitCompilationUnit(ast, astEnv);
+				EnvironmentWriter.save(astEnv.getRootEnvironment(), cacheFile(file));
+				SignatureFingerprint fingerprint = SignatureFingerprint.of(ast);
+				Record old = this.manifest.put(file, new Record(contentHashes.get(file), fingerprint));
+				if (old == null || !old.fingerprint.getSignatureHash().equals(fingerprint.getSignatureHash())) {
+					changedTypes.addAll(fingerprint.getDeclaredTypes());
+					if (old != null) {
+						changedTypes.addAll(old.fingerprint.getDeclaredTypes());
+					}
+				}
+				this.collected++;
+			}
+		} finally {
+			jfm.close();
+		}
+		return changedTypes;
+	}
+
+	/**
+	 * @return the amount of files parsed and visited in the last call to {@link IncrementalCollector#collect(SourceFiles, File)}	:	{@code int}
+	 */
+	public int getCollectedCount() {
+		return this.collected;
+	}
+
+	/**
+	 * @return the amount of files taken from the cache in the last call to {@link IncrementalCollector#collect(SourceFiles, File)}	:	{@code int}
+	 */
+	public int getReusedCount() {
+		return this.reused;
+	}
+
+	/**
+	 * Hashes everything, other than the sources themselves, that can change the result of a collection
+	 */
+	private String fingerprint(SourceFiles sources) {
+		StringBuilder fingerprint = new StringBuilder();
+		fingerprint.append("format ").append(MappedEnvironment.VERSION).append('\n');
+		fingerprint.append("java ").append(System.getProperty("java.version")).append('\n');
+		String classPath = System.getProperty("java.class.path", "");
+		for (String element : classPath.split(File.pathSeparator)) {
+			File entry = new File(element);
+			fingerprint.append("classpath ").append(entry.getAbsolutePath()).append(' ').append(entry.length()).append(' ').append(entry.lastModified()).append('\n');
+		}
+		for (File root : sources.getSourceRoots()) {
+			fingerprint.append("root ").append(root.getAbsolutePath()).append('\n');
+		}
+		fingerprint.append("scopes ").append(this.configuration.isComputeScopes()).append('\n');
+		fingerprint.append("types ").append(this.configuration.isComputeTypes()).append('\n');
+		fingerprint.append("override ").append(this.configuration.isOverrideEntries()).append('\n');
+		fingerprint.append("kinds ");
+		for (Tree.Kind kind : Tree.Kind.values()) {
+			fingerprint.append(this.configuration.records(kind)?'1':'0');
+		}
+		return SignatureFingerprint.hash(fingerprint);
+	}
+
+	/**
+	 * Loads the manifest if it was written with the same {@code fingerprint}, otherwise the manifest and every
+	 * cached environment are discarded
+	 */
+	private void loadManifest(String fingerprint) throws IOException {
+		this.manifest.clear();
+		File manifestFile = new File(this.cacheDir, MANIFEST);
+		if (!manifestFile.isFile()) {
+			clearCacheFiles();
+			return;
+		}
+		List<String> lines = Files.readAllLines(manifestFile.toPath(), Charset.forName("UTF-8"));
+		if (lines.isEmpty() || !lines.get(0).equals("fingerprint" + SEPARATOR + fingerprint)) {
+			clearCacheFiles();
+			return;
+		}
+		for (String line : lines.subList(1, lines.size())) {
+			String[] fields = line.split(SEPARATOR, -1);
+			if (fields.length != 5) {
+				continue;
+			}
+			SignatureFingerprint signature = new SignatureFingerprint(fields[2], names(fields[3]), names(fields[4]));
+			this.manifest.put(fields[0], new Record(fields[1], signature));
+		}
+	}
+
+	private void saveManifest(String fingerprint) throws IOException {
+		File manifestFile = new File(this.cacheDir, MANIFEST);
+		try (BufferedWriter writer = Files.newBufferedWriter(manifestFile.toPath(), Charset.forName("UTF-8"))) {
+			writer.write("fingerprint" + SEPARATOR + fingerprint);
+			writer.newLine();
+			for (Entry<String, Record> record : this.manifest.entrySet()) {
+				SignatureFingerprint signature = record.getValue().fingerprint;
+				writer.write(record.getKey() + SEPARATOR + record.getValue().contentHash + SEPARATOR + signature.getSignatureHash()
+						+ SEPARATOR + join(signature.getDeclaredTypes()) + SEPARATOR + join(signature.getReferencedNames()));
+				writer.newLine();
+			}
+		}
+	}
+
+	private static Set<String> names(String field) {
+		Set<String> names = new TreeSet<String>();
+		if (!field.isEmpty()) {
+			names.addAll(Arrays.asList(field.split(NAME_SEPARATOR)));
+		}
+		return names;
+	}
+
+	private static String join(Set<String> names) {
+		StringBuilder joined = new StringBuilder();
+		for (String name : names) {
+			if (joined.length() > 0) {
+				joined.append(NAME_SEPARATOR);
+			}
+			joined.append(name);
+		}
+		return joined.toString();
+	}
+
+	private File cacheFile(String file) {
+		return new File(this.cacheDir, SignatureFingerprint.hash(file) + CACHE_EXTENSION);
+	}
+
+	/**
+	 * Deletes every cached environment in the cache directory
+	 */
+	private void clearCacheFiles() throws IOException {
+		File[] contents = this.cacheDir.listFiles();
+		if (contents == null) {
+			return;
+		}
+		for (File file : contents) {
+			if (file.isFile() && file.getName().endsWith(CACHE_EXTENSION)) {
+				Files.deleteIfExists(file.toPath());
+			}
+		}
+	}
+
+	private static String key(File file) {
+		return file.getAbsoluteFile().toPath().normalize().toString();
+	}
+
+}
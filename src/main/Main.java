@@ -1,7 +1,12 @@
 package main;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -21,10 +26,14 @@ import javax.lang.model.util.ElementScanner6;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import javax.tools.ToolProvider;
 import javax.tools.JavaCompiler.CompilationTask;
 
+import visitor.CollectorConfiguration;
 import visitor.Environment;
+import visitor.EnvironmentWriter;
+import visitor.MappedEnvironment;
 import visitor.PrintVisitor;
 import visitor.SignatureCollectorVisitor;
 
@@ -34,6 +43,8 @@ import com.sun.source.util.Trees;
 
 public class Main {
 
+	private static final String USAGE = "usage : main.Main [-j threads] [--timings file] [--cache directory] [--stats] [--no-attribution] [--out file] [--format text|json|binary] <file | directory | @argfile>...";
+
 	@SupportedSourceVersion(SourceVersion.RELEASE_7)
 	@SupportedAnnotationTypes("*")
 	private static class MyProcessor extends AbstractProcessor {
@@ -81,9 +92,115 @@ public class Main {
 		}
 	}
 
+	/**
+	 * Where and in which format the collected environment is written
+	 */
+	private static class Output {
+		
+		File file = null;
+		boolean json = false;
+		boolean binary = false;
+		
+		/**
+		 * Streams {@code env} to {@link Output#file} (or the standard output if {@code null}) as text or JSON lines,
+		 * or saves it to {@link Output#file} in the format read by {@link MappedEnvironment}
+		 * 
+		 * @param env	:	the environment to write	:	{@code Environment}
+		 * @throws IOException
+		 */
+		void write(Environment env) throws IOException {
+			if (this.binary) {
+				EnvironmentWriter.save(env, this.file);
+				return;
+			}
+			Writer writer = this.file==null?new OutputStreamWriter(System.out):new FileWriter(this.file);
+			BufferedWriter out = new BufferedWriter(writer);
+			try {
+				if (this.json) {
+					env.dumpJson(out);
+				} else {
+					env.dump(out);
+				}
+			} finally {
+				if (this.file == null) {
+					out.flush();
+				} else {
+					out.close();
+				}
+			}
+		}
+		
+	}
+
 	public static void main(String[] args) throws IOException {
+		int threads = 1;
+		File timings = null;
+		boolean stats = false;
+		File cache = null;
+		CollectorConfiguration configuration = new CollectorConfiguration();
+		Output output = new Output();
+		int firstInput = 0;
+		while (firstInput < args.length && args[firstInput].startsWith("-")) {
+			String option = args[firstInput++];
+			if (option.equals("-j") && firstInput < args.length) {
+				String value = args[firstInput++];
+				try {
+					threads = Integer.parseInt(value);
+				} catch (NumberFormatException e) {
+					threads = 0;
+				}
+				if (threads <= 0) {
+					System.err.println("invalid thread count : " + value);
+					System.err.println(USAGE);
+					return;
+				}
+			} else if (option.equals("--timings") && firstInput < args.length) {
+				timings = new File(args[firstInput++]);
+			} else if (option.equals("--cache") && firstInput < args.length) {
+				cache = new File(args[firstInput++]);
+			} else if (option.equals("--stats")) {
+				stats = true;
+			} else if (option.equals("--out") && firstInput < args.length) {
+				output.file = new File(args[firstInput++]);
+			} else if (option.equals("--format") && firstInput < args.length) {
+				String format = args[firstInput++];
+				if (!format.equals("text") && !format.equals("json") && !format.equals("binary")) {
+					System.err.println("unknown format : " + format);
+					System.err.println(USAGE);
+					return;
+				}
+				output.json = format.equals("json");
+				output.binary = format.equals("binary");
+			} else if (option.equals("--no-attribution")) {
+				configuration.setComputeScopes(false);
+				configuration.setComputeTypes(false);
+			} else {
+				System.err.println("unknown option : " + option);
+				System.err.println(USAGE);
+				return;
+			}
+		}
+		if (args.length == firstInput) {
+			System.err.println(USAGE);
+			return;
+		}
+		if (output.binary && output.file == null) {
+			System.err.println("the binary format requires --out");
+			return;
+		}
+		if (cache != null && !output.binary) {
+			System.err.println("--cache requires --format binary");
+			return;
+		}
+		SourceFiles sources = SourceFiles.collect(Arrays.copyOfRange(args, firstInput, args.length));
 		//processorTest(args[0]);
-		visitorTest(args[0]);
+		if (cache != null) {
+			incrementalVisitorTest(sources, configuration, output, cache);
+		} else if (threads == 1 && timings == null) {
+			visitorTest(sources, configuration, output, stats);
+		} else {
+			parallelVisitorTest(sources, configuration, output, threads, timings);
+		}
 	}
 	
 	private static void processorTest(String file) {
@@ -112,23 +229,102 @@ public class Main {
 		}
 	}
 	
-	private static void visitorTest(String file) throws IOException {
+	/**
+	 * Parses all sources with a single file manager and {@code JavacTask} and collects
+	 * the signatures of every compilation unit into one environment
+	 * 
+	 * @param sources			:	the sources to process	:	{@code SourceFiles}
+	 * @param configuration	:	the configuration of the collection	:	{@code CollectorConfiguration}
+	 * @param output			:	where and how to write the collected environment	:	{@code Output}
+	 * @param stats			:	if {@code true} the heap used by the collected entries is measured and reported	:	{@code boolean}
+	 * @throws IOException
+	 */
+	private static void visitorTest(SourceFiles sources, CollectorConfiguration configuration, Output output, boolean stats) throws IOException {
 		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
-		String filePath = file;
 		StandardJavaFileManager jfm = javac.getStandardFileManager(null, null, null);
-        Iterable<? extends javax.tools.JavaFileObject> javaFileObjects = jfm.getJavaFileObjects(filePath);
+		try {
+			if (!sources.getSourceRoots().isEmpty()) {
+				jfm.setLocation(StandardLocation.SOURCE_PATH, sources.getSourceRoots());
+			}
+			Iterable<? extends JavaFileObject> javaFileObjects = jfm.getJavaFileObjectsFromFiles(sources.getFiles());
 
-        JavacTask task = (JavacTask) javac.getTask(null, jfm, null, null, null, javaFileObjects);
+			JavacTask task = (JavacTask) javac.getTask(null, jfm, null, null, null, javaFileObjects);
 
-        Iterable<? extends CompilationUnitTree> asts = task.parse();
-        Trees trees = Trees.instance(task);
+			Iterable<? extends CompilationUnitTree> asts = task.parse();
+			if (configuration.isComputeTypes()) {
+				task.analyze();
+			}
+			Trees trees = Trees.instance(task);
 
-        SignatureCollectorVisitor signatureCollectorVisitor = new SignatureCollectorVisitor(trees);
-        Environment astEnv = new Environment(trees);
-        for (CompilationUnitTree ast : asts) {
-        	signatureCollectorVisitor.visitCompilationUnit(ast, astEnv);
-        	//new PrintVisitor().visitCompilationUnit(ast, null);
-        }
-        System.out.println(astEnv.getRootEnvironment().toString());
+			long heapBefore = stats?usedHeap():0;
+			SignatureCollectorVisitor signatureCollectorVisitor = new SignatureCollectorVisitor(trees, configuration);
+			Environment astEnv = signatureCollectorVisitor.createEnvironment();
+			for (CompilationUnitTree ast : asts) {
+				signatureCollectorVisitor.visitCompilationUnit(ast, astEnv);
+				//new PrintVisitor().visitCompilationUnit(ast, null);
+			}
+			if (stats) {
+				long heapUsed = usedHeap() - heapBefore;
+				long entries = astEnv.totalSize();
+				System.err.println(String.format("entries : %d ; scopes : %d ; heap used by collection : %d bytes ; bytes per entry : %.1f", entries, astEnv.getRootEnvironment().getScopeCount(), heapUsed, entries == 0 ? 0.0 : ((double) heapUsed) / entries));
+			}
+			output.write(astEnv.getRootEnvironment());
+		} finally {
+			jfm.close();
+		}
+	}
+	
+	/**
+	 * @return the heap in use after requesting a garbage collection	:	{@code long}
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int gc = 0; gc < 3; gc++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	/**
+	 * Same as {@link Main#visitorTest(SourceFiles, CollectorConfiguration, Output, boolean)} but parsing and collecting shards of the sources in parallel
+	 * 
+	 * @param sources			:	the sources to process	:	{@code SourceFiles}
+	 * @param configuration	:	the configuration of the collection	:	{@code CollectorConfiguration}
+	 * @param output			:	where and how to write the collected environment	:	{@code Output}
+	 * @param threads			:	the amount of worker threads	:	{@code int}
+	 * @param timings			:	the file used to load and save per file timings, or {@code null}	:	{@code File}
+	 * @throws IOException
+	 */
+	private static void parallelVisitorTest(SourceFiles sources, CollectorConfiguration configuration, Output output, int threads, File timings) throws IOException {
+		CostModel costModel = new CostModel();
+		if (timings != null) {
+			costModel.load(timings);
+		}
+		try (ParallelCollector collector = new ParallelCollector(threads, costModel, configuration)) {
+			Environment astEnv = collector.collect(sources);
+			if (astEnv != null) {
+				output.write(astEnv.getRootEnvironment());
+			}
+			System.err.println(String.format("threads : %d ; shards : %d ; imbalance (max/mean busy time) : %.2f", threads, collector.getShardCount(), collector.getImbalance()));
+		}
+		if (timings != null) {
+			costModel.save(timings);
+		}
+	}
+	
+	/**
+	 * Same as {@link Main#visitorTest(SourceFiles, CollectorConfiguration, Output, boolean)} but only collecting the sources
+	 * that changed since the last run using the same cache directory
+	 * 
+	 * @param sources			:	the sources to process	:	{@code SourceFiles}
+	 * @param configuration	:	the configuration of the collection	:	{@code CollectorConfiguration}
+	 * @param output			:	where to write the collected environment, must use the binary format	:	{@code Output}
+	 * @param cache			:	the cache directory	:	{@code File}
+	 * @throws IOException
+	 */
+	private static void incrementalVisitorTest(SourceFiles sources, CollectorConfiguration configuration, Output output, File cache) throws IOException {
+		IncrementalCollector collector = new IncrementalCollector(cache, configuration);
+		collector.collect(sources, output.file);
+		System.err.println(String.format("collected : %d ; reused : %d", collector.getCollectedCount(), collector.getReusedCount()));
 	}
 }
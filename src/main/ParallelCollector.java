@@ -0,0 +1,239 @@
+package main;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import visitor.CollectorConfiguration;
+import visitor.Environment;
+import visitor.SignatureCollectorVisitor;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Trees;
+
+/**
+ * Parses and collects signatures of a set of source files using several threads
+ * <p>
+ * {@code JavacTask} is not thread-safe, so the files are partitioned into shards and every shard
+ * gets its own file manager, {@code JavacTask}, {@code Trees}, {@link SignatureCollectorVisitor} and
+ * {@link Environment}. Shards are balanced by estimated cost using a {@link ShardScheduler} and
+ * submitted, most expensive first, to a work-stealing {@code ForkJoinPool}; the resulting root
+ * environments are merged using {@link Environment#merge(Environment)}.
+ * <p>
+ * The time spent on each file is recorded in the {@link CostModel} so that it can be saved and used
+ * to schedule the next run, the busy time of each worker is used to compute {@link ParallelCollector#getImbalance()}.
+ * <p>
+ * The file managers are kept open until {@link ParallelCollector#close()} is called, since the
+ * collected environments can still query javac.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ParallelCollector implements Closeable {
+
+	protected final int threads;
+	protected final JavaCompiler javac;
+	protected final List<StandardJavaFileManager> fileManagers;
+	protected final CostModel costModel;
+	protected final ShardScheduler scheduler;
+	protected final ConcurrentMap<Thread, AtomicLong> busyTime;
+	protected final CollectorConfiguration configuration;
+	protected int lastShardCount = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param threads	:	the amount of worker threads to use	:	{@code int}
+	 * @param costModel		:	the cost model used to balance shards and to record timings	:	{@code CostModel}
+	 * @param configuration	:	the configuration used by every shard	:	{@code CollectorConfiguration}
+	 */
+	public ParallelCollector(int threads, CostModel costModel, CollectorConfiguration configuration) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("main.ParallelCollector#ParallelCollector : threads must be greater than 0 (" + threads + ")");
+		}
+		this.threads = threads;
+		this.javac = ToolProvider.getSystemJavaCompiler();
+		this.fileManagers = Collections.synchronizedList(new LinkedList<StandardJavaFileManager>());
+		this.costModel = costModel;
+		this.scheduler = new ShardScheduler(costModel);
+		this.busyTime = new ConcurrentHashMap<Thread, AtomicLong>();
+		this.configuration = configuration;
+	}
+
+	public ParallelCollector(int threads) {
+		this(threads, new CostModel(), new CollectorConfiguration());
+	}
+
+	/**
+	 * Collects all sources into a single environment
+	 *
+	 * @param sources	:	the sources to process	:	{@code SourceFiles}
+	 * @return the root environment containing the entries of all shards	:	{@code Environment}
+	 */
+	public Environment collect(SourceFiles sources) {
+		List<ShardScheduler.Shard> shards = this.scheduler.schedule(sources.getFiles(), this.threads);
+		this.lastShardCount = shards.size();
+		this.busyTime.clear();
+		if (shards.isEmpty()) {
+			return null;
+		}
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			List<ForkJoinTask<Environment>> tasks = new ArrayList<ForkJoinTask<Environment>>(shards.size());
+			for (ShardScheduler.Shard shard : shards) {
+				tasks.add(pool.submit(new ShardTask(shard.getFiles(), sources.getSourceRoots())));
+			}
+			Environment rootEnv = null;
+			for (ForkJoinTask<Environment> task : tasks) {
+				Environment shardEnv = task.join();
+				if (rootEnv == null) {
+					rootEnv = shardEnv;
+				} else {
+					rootEnv.merge(shardEnv);
+				}
+			}
+			return rootEnv;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The imbalance of the last call to {@link ParallelCollector#collect(SourceFiles)}, measured as the
+	 * maximum busy time of a worker thread divided by the mean busy time of all worker threads
+	 *
+	 * @return the imbalance, {@code 1.0} means a perfect balance	:	{@code double}
+	 */
+	public double getImbalance() {
+		long[] loads = new long[Math.max(this.threads, this.busyTime.size())];
+		int w = 0;
+		for (AtomicLong load : this.busyTime.values()) {
+			loads[w++] = load.get();
+		}
+		return ShardScheduler.imbalance(loads);
+	}
+
+	/**
+	 * @return the amount of shards used in the last call to {@link ParallelCollector#collect(SourceFiles)}	:	{@code int}
+	 */
+	public int getShardCount() {
+		return this.lastShardCount;
+	}
+
+	public CostModel getCostModel() {
+		return this.costModel;
+	}
+
+	/**
+	 * Parses and collects a single shard on the calling thread
+	 *
+	 * @param shard			:	the files of the shard	:	{@code List<File>}
+	 * @param sourceRoots	:	the source path to use	:	{@code List<File>}
+	 * @return the root environment of the shard	:	{@code Environment}
+	 * @throws IOException
+	 */
+	protected Environment collectShard(List<File> shard, List<File> sourceRoots) throws IOException {
+		long shardStart = System.nanoTime();
+		StandardJavaFileManager jfm = this.javac.getStandardFileManager(null, null, null);
+		this.fileManagers.add(jfm);
+		if (!sourceRoots.isEmpty()) {
+			jfm.setLocation(StandardLocation.SOURCE_PATH, sourceRoots);
+		}
+		Iterable<? extends JavaFileObject> javaFileObjects = jfm.getJavaFileObjectsFromFiles(shard);
+		JavacTask task = (JavacTask) this.javac.getTask(null, jfm, null, null, null, javaFileObjects);
+		Iterable<? extends CompilationUnitTree> asts = task.parse();
+		if (this.configuration.isComputeTypes()) {
+			task.analyze();
+		}
+		long parseTime = System.nanoTime() - shardStart;
+		long shardBytes = 0;
+		for (File file : shard) {
+			shardBytes += file.length();
+		}
+		Trees trees = Trees.instance(task);
+		SignatureCollectorVisitor signatureCollectorVisitor = new SignatureCollectorVisitor(trees, this.configuration);
+		Environment shardEnv = signatureCollectorVisitor.createEnvironment();
+		for (CompilationUnitTree ast : asts) {
+			long visitStart = System.nanoTime();
+			signatureCollectorVisitor.visitCompilationUnit(ast, shardEnv);
+			long visitTime = System.nanoTime() - visitStart;
+			File file = new File(ast.getSourceFile().toUri());
+			long parseShare = shardBytes == 0 ? 0 : (long) (parseTime * (((double) file.length()) / shardBytes));
+			this.costModel.record(file, visitTime + parseShare);
+		}
+		addBusyTime(System.nanoTime() - shardStart);
+		return shardEnv.getRootEnvironment();
+	}
+
+	private void addBusyTime(long nanos) {
+		Thread worker = Thread.currentThread();
+		AtomicLong load = this.busyTime.get(worker);
+		if (load == null) {
+			this.busyTime.putIfAbsent(worker, new AtomicLong());
+			load = this.busyTime.get(worker);
+		}
+		load.addAndGet(nanos);
+	}
+
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		synchronized (this.fileManagers) {
+			for (StandardJavaFileManager jfm : this.fileManagers) {
+				try {
+					jfm.close();
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+			this.fileManagers.clear();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Collects a single shard
+	 */
+	private class ShardTask extends RecursiveTask<Environment> {
+
+		private static final long serialVersionUID = -3785212410466380530L;
+
+		private final List<File> shard;
+		private final List<File> sourceRoots;
+
+		ShardTask(List<File> shard, List<File> sourceRoots) {
+			this.shard = shard;
+			this.sourceRoots = sourceRoots;
+		}
+
+		@Override
+		protected Environment compute() {
+			try {
+				return collectShard(this.shard, this.sourceRoots);
+			} catch (IOException e) {
+				throw new IllegalStateException("main.ParallelCollector#collectShard", e);
+			}
+		}
+
+	}
+
+}
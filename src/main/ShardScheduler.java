@@ -0,0 +1,129 @@
+package main;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Splits a set of files into shards of similar estimated cost
+ * <p>
+ * Files are sorted by decreasing cost (see {@link CostModel}) and each one is assigned to the currently
+ * cheapest shard (longest processing time first). More shards than worker threads are created so
+ * that, once the shards are handed to a work-stealing pool in decreasing cost order, the big
+ * compilation units start first and the small shards fill the gaps.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ShardScheduler {
+
+	/**
+	 * The default amount of shards to create for each worker thread
+	 */
+	public static final int SHARDS_PER_THREAD = 2;
+
+	/**
+	 * A set of files together with their estimated cost
+	 */
+	public static class Shard {
+
+		protected List<File> files = new LinkedList<File>();
+		protected long estimatedCost = 0;
+
+		protected void add(File file, long cost) {
+			this.files.add(file);
+			this.estimatedCost += cost;
+		}
+
+		public List<File> getFiles() {
+			return this.files;
+		}
+
+		public long getEstimatedCost() {
+			return this.estimatedCost;
+		}
+
+	}
+
+	protected final CostModel costModel;
+	protected final int shardsPerThread;
+
+	public ShardScheduler(CostModel costModel, int shardsPerThread) {
+		this.costModel = costModel;
+		this.shardsPerThread = shardsPerThread;
+	}
+
+	public ShardScheduler(CostModel costModel) {
+		this(costModel, SHARDS_PER_THREAD);
+	}
+
+	/**
+	 * @param files		:	the files to split	:	{@code List<File>}
+	 * @param threads	:	the amount of worker threads	:	{@code int}
+	 * @return the shards sorted by decreasing estimated cost	:	{@code List<Shard>}
+	 */
+	public List<Shard> schedule(List<File> files, int threads) {
+		int shardCount = Math.min(Math.max(1, threads * this.shardsPerThread), files.size());
+		final long[] costs = new long[files.size()];
+		List<Integer> order = new ArrayList<Integer>(files.size());
+		for (int f = 0; f < costs.length; f++) {
+			costs[f] = this.costModel.estimate(files.get(f));
+			order.add(f);
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Long.compare(costs[b], costs[a]);
+			}
+		});
+		PriorityQueue<Shard> cheapestFirst = new PriorityQueue<Shard>(Math.max(1, shardCount), new Comparator<Shard>() {
+			@Override
+			public int compare(Shard a, Shard b) {
+				return Long.compare(a.estimatedCost, b.estimatedCost);
+			}
+		});
+		for (int s = 0; s < shardCount; s++) {
+			cheapestFirst.add(new Shard());
+		}
+		for (Integer f : order) {
+			Shard cheapest = cheapestFirst.poll();
+			cheapest.add(files.get(f), costs[f]);
+			cheapestFirst.add(cheapest);
+		}
+		List<Shard> shards = new ArrayList<Shard>(cheapestFirst);
+		Collections.sort(shards, new Comparator<Shard>() {
+			@Override
+			public int compare(Shard a, Shard b) {
+				return Long.compare(b.estimatedCost, a.estimatedCost);
+			}
+		});
+		return shards;
+	}
+
+	/**
+	 * Computes the imbalance of a set of loads as {@code max / mean}, {@code 1.0} means a perfect balance
+	 *
+	 * @param loads	:	the load of each worker or shard	:	{@code long[]}
+	 * @return the imbalance	:	{@code double}
+	 */
+	public static double imbalance(long[] loads) {
+		if (loads.length == 0) {
+			return 1.0;
+		}
+		long max = 0;
+		long total = 0;
+		for (long load : loads) {
+			max = Math.max(max, load);
+			total += load;
+		}
+		if (total == 0) {
+			return 1.0;
+		}
+		return ((double) max) / (((double) total) / loads.length);
+	}
+
+}
@@ -0,0 +1,160 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expands the command line inputs of {@link Main} into the set of java source files to process
+ * <p>
+ * each input can be one of the following
+ * <li>a java source file</li>
+ * <li>a directory (or source root), all {@code .java} files under it are included</li>
+ * <li>an argument file {@code @file}, containing one input per line (empty lines and lines starting with {@code #} are ignored)</li>
+ * <p>
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class SourceFiles {
+
+	private static final String JAVA_EXTENSION = ".java";
+	private static final String ARGFILE_PREFIX = "@";
+	private static final String ARGFILE_COMMENT = "#";
+
+	/**
+	 * The source files found, in the order they were found and without duplicates
+	 */
+	protected Set<File> files;
+	/**
+	 * The directories given as inputs, used as source roots
+	 */
+	protected Set<File> sourceRoots;
+	/**
+	 * The canonical paths of the argument files being expanded, used to detect cycles
+	 */
+	protected Set<File> expandingArgFiles;
+
+	public SourceFiles() {
+		this.files = new LinkedHashSet<File>();
+		this.sourceRoots = new LinkedHashSet<File>();
+		this.expandingArgFiles = new LinkedHashSet<File>();
+	}
+
+	/**
+	 * Collects all source files referenced by {@code inputs}
+	 *
+	 * @param inputs	:	files, directories or argument files	:	{@code String[]}
+	 * @return the collected source files	:	{@code SourceFiles}
+	 * @throws IOException if an argument file can't be read
+	 * @throws IllegalArgumentException if an input doesn't exist or an argument file references itself
+	 */
+	public static SourceFiles collect(String[] inputs) throws IOException {
+		SourceFiles sourceFiles = new SourceFiles();
+		for (String input : inputs) {
+			sourceFiles.add(input);
+		}
+		return sourceFiles;
+	}
+
+	/**
+	 * Adds a file, directory or argument file
+	 *
+	 * @param input	:	the input to add	:	{@code String}
+	 * @throws IOException if an argument file can't be read
+	 * @throws IllegalArgumentException if the input doesn't exist or an argument file references itself
+	 */
+	public void add(String input) throws IOException {
+		if (input.startsWith(ARGFILE_PREFIX)) {
+			addArgFile(new File(input.substring(ARGFILE_PREFIX.length())));
+			return;
+		}
+		File file = new File(input);
+		if (file.isDirectory()) {
+			addDirectory(file);
+		} else if (file.isFile()) {
+			this.files.add(file);
+		} else {
+			throw new IllegalArgumentException("main.SourceFiles#add : " + input + " is not a file, directory or argument file");
+		}
+	}
+
+	protected void addArgFile(File argFile) throws IOException {
+		File canonical = argFile.getCanonicalFile();
+		if (!this.expandingArgFiles.add(canonical)) {
+			StringBuilder cycle = new StringBuilder();
+			for (File expanding : this.expandingArgFiles) {
+				cycle.append(ARGFILE_PREFIX).append(expanding.getPath()).append(" -> ");
+			}
+			cycle.append(ARGFILE_PREFIX).append(canonical.getPath());
+			throw new IllegalArgumentException("main.SourceFiles#addArgFile : argument file cycle " + cycle.toString());
+		}
+		try {
+			List<String> lines = Files.readAllLines(argFile.toPath(), Charset.defaultCharset());
+			for (String line : lines) {
+				String input = line.trim();
+				if (input.isEmpty() || input.startsWith(ARGFILE_COMMENT)) {
+					continue;
+				}
+				add(input);
+			}
+		} finally {
+			this.expandingArgFiles.remove(canonical);
+		}
+	}
+
+	protected void addDirectory(File root) {
+		this.sourceRoots.add(root);
+		Deque<File> pending = new ArrayDeque<File>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			File dir = pending.pop();
+			File[] contents = dir.listFiles();
+			if (contents == null) {
+				continue;
+			}
+			Arrays.sort(contents);
+			for (int c = contents.length - 1; c >= 0; c--) {
+				if (contents[c].isDirectory()) {
+					pending.push(contents[c]);
+				}
+			}
+			for (File f : contents) {
+				if (f.isFile() && f.getName().endsWith(JAVA_EXTENSION)) {
+					this.files.add(f);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the source files found	:	{@code List<File>}
+	 */
+	public List<File> getFiles() {
+		return new LinkedList<File>(this.files);
+	}
+
+	/**
+	 * @return the directories given as inputs	:	{@code List<File>}
+	 */
+	public List<File> getSourceRoots() {
+		return new LinkedList<File>(this.sourceRoots);
+	}
+
+	public int size() {
+		return this.files.size();
+	}
+
+	public boolean isEmpty() {
+		return this.files.isEmpty();
+	}
+
+}
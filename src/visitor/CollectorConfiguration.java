@@ -0,0 +1,97 @@
+package visitor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.Tree.Kind;
+
+/**
+ * Configuration of a signature collection, shared by the {@link SignatureCollectorVisitor} and all
+ * the {@link Environment}s of the collection
+ * <p>
+ * Each collection has its own configuration so collections with different policies can run at the
+ * same time. A configuration should not be modified while a collection using it is running.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class CollectorConfiguration {
+
+	private boolean overrideEntries = false;
+	private Set<Kind> recordedKinds = null;
+	private boolean computeScopes = true;
+	private boolean computeTypes = true;
+
+	/**
+	 * Creates a configuration that records every node kind, doesn't override entries and computes scopes and types
+	 */
+	public CollectorConfiguration() {}
+
+	/**
+	 * @return {@code true} if adding an entry for an already registered tree replaces the previous entry
+	 */
+	public boolean isOverrideEntries() {
+		return this.overrideEntries;
+	}
+
+	public void setOverrideEntries(boolean overrideEntries) {
+		this.overrideEntries = overrideEntries;
+	}
+
+	/**
+	 * @param kind	:	the kind of node	:	{@code Tree.Kind}
+	 * @return {@code true} if nodes of {@code kind} are recorded
+	 */
+	public boolean records(Kind kind) {
+		return this.recordedKinds == null || this.recordedKinds.contains(kind);
+	}
+
+	/**
+	 * @param tree	:	the node	:	{@code Tree}
+	 * @return {@code true} if {@code tree} should be recorded
+	 */
+	public boolean records(Tree tree) {
+		return this.recordedKinds == null || this.recordedKinds.contains(tree.getKind());
+	}
+
+	/**
+	 * Restricts the kinds of nodes that are recorded, compilation units are always recorded
+	 *
+	 * @param kinds	:	the kinds to record or {@code null} to record every kind	:	{@code Set<Tree.Kind>}
+	 */
+	public void setRecordedKinds(Set<Kind> kinds) {
+		if (kinds == null) {
+			this.recordedKinds = null;
+		} else {
+			this.recordedKinds = kinds.isEmpty() ? EnumSet.noneOf(Kind.class) : EnumSet.copyOf(kinds);
+			this.recordedKinds.add(Kind.COMPILATION_UNIT);
+		}
+	}
+
+	/**
+	 * @return {@code true} if the scope of entries is computed when dumping an environment, this forces javac to attribute the code
+	 */
+	public boolean isComputeScopes() {
+		return this.computeScopes;
+	}
+
+	public void setComputeScopes(boolean computeScopes) {
+		this.computeScopes = computeScopes;
+	}
+
+	/**
+	 * javac only records types on attributed trees, so collections computing types must attribute their sources
+	 * (for example with {@code JavacTask#analyze()}) before any type is read
+	 *
+	 * @return {@code true} if {@link Environment#getType(Tree)} queries javac for types
+	 */
+	public boolean isComputeTypes() {
+		return this.computeTypes;
+	}
+
+	public void setComputeTypes(boolean computeTypes) {
+		this.computeTypes = computeTypes;
+	}
+
+}
@@ -1,101 +1,476 @@
 package visitor;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.lang.model.type.TypeMirror;
 
+import jade.exceptions.ASTInternalException;
+import jade.tree.TypeMirrors;
+
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 
+/**
+ * A scope of collected entries
+ * <p>
+ * Environments form a tree, each one pointing to its parent, and the environments of a tree share a
+ * {@link ScopeStack} holding the currently open scopes. A new environment is pushed on top of its
+ * parent when created and popped with {@link Environment#closeScope()}, so the root and the leaf
+ * environments are available in constant time.
+ */
 public class Environment {
 	
-	protected static boolean overrideEntries = false;
+	protected Environment parent;
 	
-	public static void setOverrideEntries(boolean value) {
-		Environment.overrideEntries = value;
-	}
+	/**
+	 * The distance to the root environment
+	 */
+	protected int depth;
 	
-	protected Environment parent;
+	/**
+	 * The open scopes of the environment tree this environment belongs to
+	 */
+	protected ScopeStack stack;
+	
+	protected TreeEntryMap env;
 	
-	protected Environment child;
+	/**
+	 * The declarations made in this environment, created with the first declaration
+	 */
+	protected SymbolTable symbols;
 	
-	protected Map<Tree, EnvironmentEntry> env;
+	/**
+	 * {@code true} for block scopes, where a declaration is only visible from its own position on
+	 */
+	protected boolean ordered;
 	
 	protected Trees trees;
 	
-	public Environment(Trees trees) {
+	/**
+	 * Creates a root environment
+	 * 
+	 * @param trees			:	the {@code Trees} used to create entries	:	{@code Trees}
+	 * @param configuration	:	the configuration of the collection	:	{@code CollectorConfiguration}
+	 */
+	public Environment(Trees trees, CollectorConfiguration configuration) {
 		this.trees = trees;
-		this.env = new HashMap<Tree, EnvironmentEntry>();
+		this.env = new TreeEntryMap();
 		this.parent = null;
-		this.child = null;
+		this.depth = 0;
+		this.stack = new ScopeStack(this, configuration);
+	}
+	
+	public Environment(Trees trees) {
+		this(trees, new CollectorConfiguration());
 	}
 	
 	public Environment(Trees trees, Environment parent) {
-		this(trees);
+		this.trees = trees;
+		this.env = new TreeEntryMap();
 		this.parent = parent;
-		this.parent.child = this;
+		this.depth = parent.depth + 1;
+		this.stack = parent.stack;
+		this.stack.push(this);
 	}
 	
 	public Environment(Environment parent) {
-		this(parent.trees);
-		this.parent = parent;
-		this.parent.child = this;
+		this(parent.trees, parent);
+	}
+	
+	/**
+	 * Opens a new scope inside this one, the new scope becomes the leaf environment
+	 * 
+	 * @return the new scope	:	{@code Environment}
+	 */
+	public Environment openScope() {
+		return new Environment(this);
+	}
+	
+	/**
+	 * Opens a new block scope inside this one, like {@link Environment#openScope()}. The declarations of a
+	 * block scope keep their source position, so a use only sees the declarations made before it.
+	 * 
+	 * @return the new scope	:	{@code Environment}
+	 */
+	public Environment openBlockScope() {
+		Environment scope = new Environment(this);
+		scope.ordered = true;
+		return scope;
+	}
+	
+	/**
+	 * @return {@code true} if this scope was opened with {@link Environment#openBlockScope()}	:	{@code boolean}
+	 */
+	public boolean isOrdered() {
+		return this.ordered;
+	}
+	
+	/**
+	 * Closes this scope (and any scope opened inside it), the parent becomes the leaf environment.
+	 * <p>
+	 * The entries of a closed scope are kept and can still be queried.
+	 */
+	public void closeScope() {
+		this.stack.pop(this);
 	}
 	
 	public void addEntry(CompilationUnitTree cutree) {
-		if (!this.env.containsKey(cutree) || Environment.overrideEntries) {
-			this.env.put(cutree, new EnvironmentEntry(this.trees, cutree));
+		if (!this.env.containsKey(cutree) || this.stack.configuration.isOverrideEntries()) {
+			put(new EnvironmentEntry(this.trees, cutree));
 		}
 	}
 	
 	public void addEntry(CompilationUnitTree cu, Tree tree) {
-		if (!this.env.containsKey(tree) || Environment.overrideEntries) {
-			this.env.put(tree, new EnvironmentEntry(this.trees, cu, tree));
+		if (!this.stack.configuration.records(tree)) {
+			return;
+		}
+		if (!this.env.containsKey(tree) || this.stack.configuration.isOverrideEntries()) {
+			put(new EnvironmentEntry(this.trees, cu, tree));
 		}
 	}
 	
-	public TypeMirror getType(Tree tree) {
-		if (env.containsKey(tree)) {
-			return this.trees.getTypeMirror(this.env.get(tree).getTreePath());
-		} else if (this.parent != null) {
-			return this.parent.getType(tree);
+	/**
+	 * Adds an entry for the leaf of {@code path}, this avoids searching the compilation unit for the path of the tree
+	 * 
+	 * @param path	:	the path to the tree to add	:	{@code TreePath}
+	 */
+	public void addEntry(TreePath path) {
+		if (!this.stack.configuration.records(path.getLeaf())) {
+			return;
+		}
+		if (!this.env.containsKey(path.getLeaf()) || this.stack.configuration.isOverrideEntries()) {
+			put(new EnvironmentEntry(this.trees, path));
+		}
+	}
+	
+	/**
+	 * Adds {@code entry}, replacing any entry for the same tree, and indexes it by name if its tree is
+	 * a declaration
+	 */
+	protected void put(EnvironmentEntry entry) {
+		EnvironmentEntry old = this.env.put(entry);
+		SymbolTable.Namespace namespace = SymbolTable.namespaceOf(entry.getTree());
+		if (namespace == null) {
+			return;
+		}
+		String name = SymbolTable.nameOf(entry.getTree());
+		if (this.symbols == null) {
+			this.symbols = new SymbolTable();
+		}
+		if (old == null) {
+			this.symbols.declare(name, namespace, entry);
 		} else {
+			this.symbols.replace(name, old, entry);
+		}
+	}
+	
+	/**
+	 * Finds the declaration of {@code name} in {@code namespace} visible from this environment, inner
+	 * declarations shadow outer ones. Only environments with declarations are searched, one hash lookup each.
+	 * Block scopes are searched as they are at their end, use {@link Environment#resolve(String, SymbolTable.Namespace, long)}
+	 * to resolve a use inside a block.
+	 * 
+	 * @param name		:	the simple name to resolve	:	{@code String}
+	 * @param namespace	:	the namespace of the name	:	{@code SymbolTable.Namespace}
+	 * @return the entry of the declaring tree or {@code null} if {@code name} is not declared	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry resolve(String name, SymbolTable.Namespace namespace) {
+		return resolve(name, namespace, -1);
+	}
+	
+	/**
+	 * Finds the declaration of {@code name} in {@code namespace} visible at {@code position} from this environment.
+	 * In block scopes only the declarations starting at or before {@code position} are visible, so a local
+	 * declared after the use doesn't shadow an outer declaration.
+	 * 
+	 * @param name		:	the simple name to resolve	:	{@code String}
+	 * @param namespace	:	the namespace of the name	:	{@code SymbolTable.Namespace}
+	 * @param position	:	the start position of the use in its source file, {@code -1} if unknown	:	{@code long}
+	 * @return the entry of the declaring tree or {@code null} if {@code name} is not declared	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry resolve(String name, SymbolTable.Namespace namespace, long position) {
+		for (Environment current = this; current != null; current = current.parent) {
+			if (current.symbols != null) {
+				EnvironmentEntry declaration = current.symbols.lookup(name, namespace, current.ordered?position:-1);
+				if (declaration != null) {
+					return declaration;
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Finds the declaration an identifier used as an expression resolves to: a variable if any is
+	 * visible and a type otherwise
+	 * 
+	 * @param name	:	the simple name to resolve	:	{@code String}
+	 * @return the entry of the declaring tree or {@code null} if {@code name} is not declared	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry resolve(String name) {
+		return resolve(name, -1);
+	}
+	
+	/**
+	 * Same as {@link Environment#resolve(String)} for an identifier used at {@code position}
+	 * 
+	 * @param name		:	the simple name to resolve	:	{@code String}
+	 * @param position	:	the start position of the use in its source file, {@code -1} if unknown	:	{@code long}
+	 * @return the entry of the declaring tree or {@code null} if {@code name} is not declared	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry resolve(String name, long position) {
+		EnvironmentEntry declaration = resolve(name, SymbolTable.Namespace.VARIABLE, position);
+		return declaration != null ? declaration : resolve(name, SymbolTable.Namespace.TYPE, position);
+	}
+	
+	/**
+	 * Finds the methods named {@code name} declared in the innermost environment declaring any
+	 * 
+	 * @param name	:	the method name	:	{@code String}
+	 * @return all the overloads found, newest first	:	{@code List<EnvironmentEntry>}
+	 */
+	public List<EnvironmentEntry> resolveMethods(String name) {
+		List<EnvironmentEntry> methods = new LinkedList<EnvironmentEntry>();
+		for (Environment current = this; current != null && methods.isEmpty(); current = current.parent) {
+			if (current.symbols != null) {
+				current.symbols.lookupAll(name, SymbolTable.Namespace.METHOD, methods);
+			}
+		}
+		return methods;
+	}
+	
+	/**
+	 * @return the declarations made in this environment or {@code null} if there are none	:	{@code SymbolTable}
+	 */
+	public SymbolTable getSymbolTable() {
+		return this.symbols;
+	}
+	
+	/**
+	 * Returns the type of {@code tree} if an entry for it is visible from this environment, types are
+	 * cached in the {@link TypeCache} of the environment tree
+	 * 
+	 * @param tree	:	the tree	:	{@code Tree}
+	 * @return the type of {@code tree} or {@code null} if no entry is visible, javac didn't attribute the tree yet or the configuration disables types	:	{@code TypeMirror}
+	 */
+	public TypeMirror getType(Tree tree) {
+		if (!this.stack.configuration.isComputeTypes()) {
 			return null;
 		}
+		TypeCache typeCache = this.stack.typeCache;
+		TypeMirror type = typeCache.get(this, tree);
+		if (type != null) {
+			return type;
+		}
+		Environment current = this;
+		while (current != null) {
+			EnvironmentEntry entry = current.env.get(tree);
+			if (entry != null) {
+				type = entry.getType();
+				typeCache.put(current, tree, type);
+				return type;
+			}
+			current = current.parent;
+		}
+		return null;
 	}
 	
-	public Environment getLeafEnvironment() {
-		if (this.child == null) {
-			return this;
-		} else {
-			return this.child.getLeafEnvironment();
+	/**
+	 * Describes the type of {@code tree} with a JADE type, class and primitive types are kept as binary
+	 * names so no class is loaded
+	 *
+	 * @param tree	:	the tree	:	{@code Tree}
+	 * @return the type of {@code tree} or {@code null} if {@link Environment#getType(Tree)} returns {@code null}	:	{@code jade.tree.TypeTree}
+	 * @throws ASTInternalException if the type has no JADE representation
+	 */
+	public jade.tree.TypeTree getTypeTree(Tree tree) throws ASTInternalException {
+		TypeMirror type = getType(tree);
+		return type == null?null:TypeMirrors.toTypeTree(type);
+	}
+
+	/**
+	 * @return the configuration of the collection this environment belongs to	:	{@code CollectorConfiguration}
+	 */
+	public CollectorConfiguration getConfiguration() {
+		return this.stack.configuration;
+	}
+	
+	/**
+	 * @return the type cache shared by all the environments of this tree	:	{@code TypeCache}
+	 */
+	public TypeCache getTypeCache() {
+		return this.stack.typeCache;
+	}
+	
+	/**
+	 * Merges the environment tree of {@code other} into this one.
+	 * <p>
+	 * The entries of {@code other}'s root are added to this environment's root, replacing existing
+	 * ones only if {@link CollectorConfiguration#isOverrideEntries()} is set, and the remaining scopes of {@code other}
+	 * become scopes of this tree. This is used to join the environments collected by independent
+	 * javac tasks.
+	 * 
+	 * @param other	:	the environment to merge into this one	:	{@code Environment}
+	 */
+	public void merge(Environment other) {
+		Environment root = getRootEnvironment();
+		Environment otherRoot = other.getRootEnvironment();
+		for (EnvironmentEntry entry : otherRoot.env) {
+			if (!root.env.containsKey(entry.getTree()) || root.stack.configuration.isOverrideEntries()) {
+				root.put(entry);
+			}
+		}
+		for (Environment scope : otherRoot.stack.getScopes()) {
+			if (scope.parent == otherRoot) {
+				scope.parent = root;
+			}
 		}
+		root.stack.adopt(otherRoot.stack);
+	}
+	
+	public Environment getLeafEnvironment() {
+		return this.stack.leaf();
 	}
 	
 	public Environment getRootEnvironment() {
-		if (this.parent == null) {
-			return this;
-		} else {
-			return this.parent.getRootEnvironment();
+		return this.stack.root();
+	}
+	
+	public Environment getParent() {
+		return this.parent;
+	}
+	
+	public int getDepth() {
+		return this.depth;
+	}
+	
+	/**
+	 * @return the amount of entries in this environment	:	{@code int}
+	 */
+	public int size() {
+		return this.env.size();
+	}
+	
+	/**
+	 * @return the amount of environments in this environment's tree	:	{@code int}
+	 */
+	public int getScopeCount() {
+		return this.stack.getScopes().size();
+	}
+	
+	/**
+	 * @return the amount of entries in this environment and every environment of its tree	:	{@code long}
+	 */
+	public long totalSize() {
+		long total = 0;
+		for (Environment scope : this.stack.getScopes()) {
+			total += scope.size();
 		}
+		return total;
+	}
+	
+	/**
+	 * @param ancestor	:	the possible ancestor	:	{@code Environment}
+	 * @return {@code true} if {@code ancestor} is this environment or one of its ancestors
+	 */
+	public boolean isDescendantOf(Environment ancestor) {
+		Environment current = this;
+		while (current != null && current.depth > ancestor.depth) {
+			current = current.parent;
+		}
+		return current == ancestor;
+	}
+	
+	/**
+	 * @return this environment followed by every environment inside it, in creation order	:	{@code List<Environment>}
+	 */
+	protected List<Environment> getScopesInside() {
+		List<Environment> inside = new LinkedList<Environment>();
+		inside.add(this);
+		boolean found = false;
+		for (Environment scope : this.stack.getScopes()) {
+			if (!found) {
+				found = scope == this;
+			} else if (scope.isDescendantOf(this)) {
+				inside.add(scope);
+			}
+		}
+		return inside;
 	}
 	
 	@Override
 	public String toString() {
-		String envToString = "";
-		for (Entry<Tree, EnvironmentEntry> entry : this.env.entrySet()) {
-			envToString += entry.getValue().toString() + "\n";
-			envToString += "type     : " + getType(entry.getKey()) + "\n\n";
+		StringBuilder envToString = new StringBuilder();
+		try {
+			dump(envToString);
+		} catch (IOException e) {
+			throw new IllegalStateException("visitor.Environment#toString", e);
+		}
+		return envToString.toString();
+	}
+	
+	/**
+	 * Writes the entries of this environment and of every environment inside it, using the same
+	 * format as {@link Environment#toString()}, without building the whole report in memory
+	 * 
+	 * @param out	:	where to write	:	{@code Appendable}
+	 * @throws IOException
+	 */
+	public void dump(Appendable out) throws IOException {
+		boolean first = true;
+		for (Environment scope : getScopesInside()) {
+			if (!first) {
+				out.append("===child===").append('\n');
+			}
+			first = false;
+			scope.dumpEntries(out);
 		}
-		envToString += "\n";
-		if (this.child != null) {
-			envToString += "===child===" + "\n";
-			envToString += this.child.toString();
+	}
+	
+	private void dumpEntries(Appendable out) throws IOException {
+		boolean includeScope = this.stack.configuration.isComputeScopes();
+		for (EnvironmentEntry entry : this.env) {
+			entry.dump(out, includeScope);
+			out.append('\n');
+			out.append("type     : ").append(String.valueOf(getType(entry.getTree()))).append("\n\n");
+		}
+		out.append('\n');
+	}
+	
+	/**
+	 * Writes this environment and every environment inside it as JSON lines: each environment is written
+	 * as {@code {"scope":id,"parent":id,"depth":depth}} followed by one line per entry (see
+	 * {@link EnvironmentEntry#dumpJson(Appendable, int, TypeMirror)}). Ids are assigned in creation
+	 * order starting from {@code 0}, the parent of the first environment written is {@code -1}. Types are
+	 * read with {@link Environment#getType(Tree)} like in {@link Environment#dump(Appendable)}, so they are
+	 * only written if javac attributed the sources.
+	 * 
+	 * @param out	:	where to write	:	{@code Appendable}
+	 * @throws IOException
+	 */
+	public void dumpJson(Appendable out) throws IOException {
+		Map<Environment, Integer> ids = new IdentityHashMap<Environment, Integer>();
+		for (Environment scope : getScopesInside()) {
+			int id = ids.size();
+			ids.put(scope, id);
+			Integer parentId = scope.parent==null?null:ids.get(scope.parent);
+			out.append('{');
+			Json.field(out, "scope", id);
+			out.append(',');
+			Json.field(out, "parent", parentId==null?-1:parentId);
+			out.append(',');
+			Json.field(out, "depth", scope.depth);
+			out.append("}\n");
+			for (EnvironmentEntry entry : scope.env) {
+				entry.dumpJson(out, id, scope.getType(entry.getTree()));
+			}
 		}
-		return envToString;
 	}
 
 }
@@ -1,27 +1,48 @@
 package visitor;
 
+import java.io.IOException;
+
+import javax.lang.model.type.TypeMirror;
+
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Scope;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 
+/**
+ * An entry of an {@link Environment}
+ * <p>
+ * The tree path and the scope of the entry are computed the first time they are requested, computing
+ * the scope forces javac to attribute the enclosing method so entries that are never queried don't
+ * pay that cost.
+ * <p>
+ * Entries created without a path keep a path to the compilation unit until the real path is needed,
+ * so the compilation unit doesn't need a field of its own.
+ */
 public class EnvironmentEntry {
 	
 	protected Tree treeElem;
 	protected TreePath treePath;
 	protected Scope scope;
+	protected Trees trees;
 	
 	public EnvironmentEntry(Trees trees, CompilationUnitTree cu) {
+		this.trees = trees;
 		this.treePath = new TreePath(cu);
 		this.treeElem = cu;
-		this.scope = trees.getScope(this.treePath);
 	}
 	
 	public EnvironmentEntry(Trees trees, CompilationUnitTree cu, Tree tree) {
-		this.treePath = trees.getPath(cu, tree);
+		this.trees = trees;
+		this.treePath = new TreePath(cu);
 		this.treeElem = tree;
-		this.scope = trees.getScope(this.treePath);
+	}
+	
+	public EnvironmentEntry(Trees trees, TreePath treePath) {
+		this.trees = trees;
+		this.treePath = treePath;
+		this.treeElem = treePath.getLeaf();
 	}
 	
 	public Tree getTree() {
@@ -29,18 +50,112 @@ public class EnvironmentEntry {
 	}
 	
 	public TreePath getTreePath() {
+		if (this.treePath.getLeaf() != this.treeElem) {
+			this.treePath = this.trees.getPath(this.treePath.getCompilationUnit(), this.treeElem);
+		}
 		return this.treePath;
 	}
 	
 	public Scope getScope() {
+		if (this.scope == null) {
+			this.scope = this.trees.getScope(getTreePath());
+		}
 		return this.scope;
 	}
 	
+	/**
+	 * The type is resolved with the {@code Trees} instance used to create this entry, this allows
+	 * entries coming from different javac tasks to live in the same {@code Environment}. The type is only
+	 * read, so it is {@code null} until javac attributes the tree.
+	 * 
+	 * @return the type of the tree associated with this entry	:	{@code TypeMirror}
+	 */
+	public TypeMirror getType() {
+		return this.trees.getTypeMirror(getTreePath());
+	}
+	
+	public CompilationUnitTree getCompilationUnit() {
+		return this.treePath.getCompilationUnit();
+	}
+	
+	/**
+	 * @return the start position of the tree in its source file or {@code -1} if unknown	:	{@code long}
+	 */
+	public long getStartPosition() {
+		return this.trees.getSourcePositions().getStartPosition(getCompilationUnit(), this.treeElem);
+	}
+	
+	/**
+	 * @return the end position of the tree in its source file or {@code -1} if unknown	:	{@code long}
+	 */
+	public long getEndPosition() {
+		return this.trees.getSourcePositions().getEndPosition(getCompilationUnit(), this.treeElem);
+	}
+	
 	@Override
 	public String toString() {
-		return 		"tree elem: " + this.treeElem.toString() + "\n"
-				+ 	"tree path: " + this.treePath.toString() + "\n"
-				+	"scope    : " + this.scope.toString();
+		return toString(true);
+	}
+	
+	/**
+	 * @param includeScope	:	if {@code false} the scope is not computed	:	{@code boolean}
+	 * @return a description of this entry	:	{@code String}
+	 */
+	public String toString(boolean includeScope) {
+		StringBuilder entryToString = new StringBuilder();
+		try {
+			dump(entryToString, includeScope);
+		} catch (IOException e) {
+			throw new IllegalStateException("visitor.EnvironmentEntry#toString", e);
+		}
+		return entryToString.toString();
+	}
+	
+	/**
+	 * Writes the same description returned by {@link EnvironmentEntry#toString(boolean)}
+	 * 
+	 * @param out			:	where to write	:	{@code Appendable}
+	 * @param includeScope	:	if {@code false} the scope is not computed	:	{@code boolean}
+	 * @throws IOException
+	 */
+	public void dump(Appendable out, boolean includeScope) throws IOException {
+		out.append("tree elem: ").append(this.treeElem.toString()).append('\n');
+		out.append("tree path: ").append(getTreePath().toString()).append('\n');
+		out.append("scope    : ").append(includeScope?getScope().toString():"not computed");
+	}
+	
+	/**
+	 * Writes this entry as a single line JSON object with the fields {@code scope}, {@code kind},
+	 * {@code name} (declarations only), {@code tree} (other trees only), {@code file}, {@code start},
+	 * {@code end} and {@code type}
+	 * 
+	 * @param out	:	where to write	:	{@code Appendable}
+	 * @param scope	:	the id of the environment containing this entry	:	{@code int}
+	 * @param type	:	the type of the tree, can be {@code null}	:	{@code TypeMirror}
+	 * @throws IOException
+	 */
+	public void dumpJson(Appendable out, int scope, TypeMirror type) throws IOException {
+		out.append('{');
+		Json.field(out, "scope", scope);
+		out.append(',');
+		Json.field(out, "kind", this.treeElem.getKind().toString());
+		out.append(',');
+		if (SymbolTable.namespaceOf(this.treeElem) != null) {
+			Json.field(out, "name", SymbolTable.nameOf(this.treeElem));
+		} else if (this.treeElem != getCompilationUnit()) {
+			Json.field(out, "tree", this.treeElem.toString());
+		} else {
+			Json.field(out, "package", getCompilationUnit().getPackageName()==null?null:getCompilationUnit().getPackageName().toString());
+		}
+		out.append(',');
+		Json.field(out, "file", getCompilationUnit().getSourceFile()==null?null:getCompilationUnit().getSourceFile().getName());
+		out.append(',');
+		Json.field(out, "start", getStartPosition());
+		out.append(',');
+		Json.field(out, "end", getEndPosition());
+		out.append(',');
+		Json.field(out, "type", type==null?null:type.toString());
+		out.append("}\n");
 	}
 	
 }
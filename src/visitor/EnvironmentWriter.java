@@ -0,0 +1,231 @@
+package visitor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.lang.model.type.TypeMirror;
+
+import com.sun.source.tree.Tree;
+
+/**
+ * Writes a collected {@link Environment} tree in the binary format read by {@link MappedEnvironment}
+ * <p>
+ * The format is, with every number written as a 4 bytes big endian int:
+ * <pre>
+ * magic ("JENV") version string count, scope count, entry count
+ * for each string the offset of its UTF-8 bytes in the file and their length
+ * for each scope the id of its parent plus one ({@code 0} for the root) and its flags ({@code 1} for a block scope)
+ * for each entry:
+ *     scope, namespace ordinal plus one ({@code 0} if not a declaration), kind string,
+ *     name string plus one, file string plus one, start plus one, length plus one, type string plus one
+ * the UTF-8 bytes of every string
+ * </pre>
+ * Every section has a fixed width, so a reader can find any field without decoding the ones before it.
+ * Names, kinds, files and types are interned in the string table, so each distinct string is stored once.
+ * A {@code 0} in a "plus one" field means the value is unknown. Scopes are written in creation order, so
+ * a parent always comes before its children.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class EnvironmentWriter {
+
+	private static final int FIELDS = 8;
+	private static final int HEADER_SIZE = 5 * 4;
+	private static final int ORDERED = 1;
+
+	protected Map<String, Integer> stringIds;
+	protected List<String> strings;
+	protected int[] parents;
+	protected int[] scopeFlags;
+	protected int scopes;
+	protected int[] records;
+	protected int entries;
+
+	/**
+	 * Creates a writer with only a root scope
+	 */
+	public EnvironmentWriter() {
+		this.stringIds = new HashMap<String, Integer>();
+		this.strings = new ArrayList<String>();
+		this.parents = new int[16];
+		this.scopeFlags = new int[16];
+		this.scopes = 1;
+		this.records = new int[FIELDS * 64];
+		this.entries = 0;
+	}
+
+	/**
+	 * Writes {@code env} and every environment inside it to {@code file}
+	 *
+	 * @param env	:	the environment to write	:	{@code Environment}
+	 * @param file	:	the destination file	:	{@code File}
+	 * @throws IOException
+	 */
+	public static void save(Environment env, File file) throws IOException {
+		EnvironmentWriter writer = new EnvironmentWriter();
+		writer.add(env);
+		writer.save(file);
+	}
+
+	/**
+	 * Writes everything added so far to {@code file}
+	 *
+	 * @param file	:	the destination file	:	{@code File}
+	 * @throws IOException
+	 */
+	public void save(File file) throws IOException {
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			write(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes {@code env} and every environment inside it to {@code out}, {@code out} is not closed
+	 *
+	 * @param env	:	the environment to write	:	{@code Environment}
+	 * @param out	:	where to write	:	{@code OutputStream}
+	 * @throws IOException
+	 */
+	public void write(Environment env, OutputStream out) throws IOException {
+		add(env);
+		write(out);
+	}
+
+	/**
+	 * Adds the entries of {@code env} to the root scope and every environment inside {@code env} as a new
+	 * scope, this allows to write the environments of several collections as a single tree
+	 *
+	 * @param env	:	the environment to add	:	{@code Environment}
+	 */
+	public void add(Environment env) {
+		Map<Environment, Integer> scopeIds = new IdentityHashMap<Environment, Integer>();
+		for (Environment scope : env.getScopesInside()) {
+			int id;
+			if (scopeIds.isEmpty()) {
+				id = 0;
+			} else {
+				Integer parentId = scopeIds.get(scope.parent);
+				id = addScope(parentId==null?0:parentId, scope.isOrdered());
+			}
+			scopeIds.put(scope, id);
+			for (EnvironmentEntry entry : scope.env) {
+				addEntry(id, scope, entry);
+			}
+		}
+	}
+
+	/**
+	 * Same as {@link EnvironmentWriter#add(Environment)} for an environment loaded from a file
+	 *
+	 * @param mapped	:	the environment to add	:	{@code MappedEnvironment}
+	 */
+	public void add(MappedEnvironment mapped) {
+		int[] scopeIds = new int[mapped.getScopeCount()];
+		for (int scope = 1; scope < scopeIds.length; scope++) {
+			int parent = mapped.getParent(scope);
+			scopeIds[scope] = addScope(parent < 0?0:scopeIds[parent], mapped.isOrdered(scope));
+		}
+		for (int entry = 0; entry < mapped.getEntryCount(); entry++) {
+			addRecord(scopeIds[mapped.getScope(entry)], mapped.getNamespace(entry), mapped.getKind(entry), mapped.getName(entry), mapped.getFile(entry), mapped.getStartPosition(entry), mapped.getEndPosition(entry), mapped.getType(entry));
+		}
+	}
+
+	/**
+	 * Writes everything added so far to {@code out}, {@code out} is not closed
+	 *
+	 * @param out	:	where to write	:	{@code OutputStream}
+	 * @throws IOException
+	 */
+	public void write(OutputStream out) throws IOException {
+		byte[][] bytes = new byte[this.strings.size()][];
+		for (int s = 0; s < bytes.length; s++) {
+			bytes[s] = this.strings.get(s).getBytes(StandardCharsets.UTF_8);
+		}
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MappedEnvironment.MAGIC);
+		data.writeInt(MappedEnvironment.VERSION);
+		data.writeInt(bytes.length);
+		data.writeInt(this.scopes);
+		data.writeInt(this.entries);
+		long offset = HEADER_SIZE + bytes.length * 8L + this.scopes * 8L + this.entries * (FIELDS * 4L);
+		for (byte[] string : bytes) {
+			if (offset + string.length > Integer.MAX_VALUE) {
+				throw new IOException("visitor.EnvironmentWriter#write : environment too large");
+			}
+			data.writeInt((int) offset);
+			data.writeInt(string.length);
+			offset += string.length;
+		}
+		for (int scope = 0; scope < this.scopes; scope++) {
+			data.writeInt(this.parents[scope]);
+			data.writeInt(this.scopeFlags[scope]);
+		}
+		for (int field = 0; field < this.entries * FIELDS; field++) {
+			data.writeInt(this.records[field]);
+		}
+		for (byte[] string : bytes) {
+			data.write(string);
+		}
+		data.flush();
+	}
+
+	private int addScope(int parent, boolean ordered) {
+		if (this.scopes == this.parents.length) {
+			this.parents = Arrays.copyOf(this.parents, this.parents.length * 2);
+			this.scopeFlags = Arrays.copyOf(this.scopeFlags, this.scopeFlags.length * 2);
+		}
+		this.parents[this.scopes] = parent + 1;
+		this.scopeFlags[this.scopes] = ordered?ORDERED:0;
+		return this.scopes++;
+	}
+
+	private void addEntry(int scopeId, Environment scope, EnvironmentEntry entry) {
+		Tree tree = entry.getTree();
+		SymbolTable.Namespace namespace = SymbolTable.namespaceOf(tree);
+		TypeMirror type = scope.getType(tree);
+		String file = entry.getCompilationUnit().getSourceFile()==null?null:entry.getCompilationUnit().getSourceFile().getName();
+		addRecord(scopeId, namespace, tree.getKind().toString(), namespace==null?null:SymbolTable.nameOf(tree), file, entry.getStartPosition(), entry.getEndPosition(), type==null?null:type.toString());
+	}
+
+	private void addRecord(int scopeId, SymbolTable.Namespace namespace, String kind, String name, String file, long start, long end, String type) {
+		if ((this.entries + 1) * FIELDS > this.records.length) {
+			this.records = Arrays.copyOf(this.records, this.records.length * 2);
+		}
+		int record = this.entries * FIELDS;
+		this.records[record] = scopeId;
+		this.records[record + 1] = namespace==null?0:namespace.ordinal() + 1;
+		this.records[record + 2] = intern(kind);
+		this.records[record + 3] = name==null?0:intern(name) + 1;
+		this.records[record + 4] = file==null?0:intern(file) + 1;
+		this.records[record + 5] = start < 0?0:(int) start + 1;
+		this.records[record + 6] = (start < 0 || end < start)?0:(int) (end - start) + 1;
+		this.records[record + 7] = type==null?0:intern(type) + 1;
+		this.entries++;
+	}
+
+	private int intern(String string) {
+		Integer id = this.stringIds.get(string);
+		if (id == null) {
+			id = this.strings.size();
+			this.stringIds.put(string, id);
+			this.strings.add(string);
+		}
+		return id;
+	}
+
+}
@@ -0,0 +1,77 @@
+package visitor;
+
+import java.io.IOException;
+
+/**
+ * Minimal helpers to write JSON values directly to an {@code Appendable}
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public final class Json {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private Json() {}
+
+	/**
+	 * Writes {@code value} as a JSON string, {@code null} is written as {@code null}
+	 *
+	 * @param out	:	where to write	:	{@code Appendable}
+	 * @param value	:	the value to write	:	{@code CharSequence}
+	 * @throws IOException
+	 */
+	public static void string(Appendable out, CharSequence value) throws IOException {
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		for (int c = 0; c < value.length(); c++) {
+			char ch = value.charAt(c);
+			switch (ch) {
+				case '"': out.append("\\\""); break;
+				case '\\': out.append("\\\\"); break;
+				case '\n': out.append("\\n"); break;
+				case '\r': out.append("\\r"); break;
+				case '\t': out.append("\\t"); break;
+				default: {
+					if (ch < 0x20) {
+						out.append("\\u00").append(HEX[ch >> 4]).append(HEX[ch & 0xF]);
+					} else {
+						out.append(ch);
+					}
+				}
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Writes {@code "name":} followed by {@code value} as a JSON string
+	 *
+	 * @param out	:	where to write	:	{@code Appendable}
+	 * @param name	:	the field name	:	{@code String}
+	 * @param value	:	the value to write	:	{@code CharSequence}
+	 * @throws IOException
+	 */
+	public static void field(Appendable out, String name, CharSequence value) throws IOException {
+		string(out, name);
+		out.append(':');
+		string(out, value);
+	}
+
+	/**
+	 * Writes {@code "name":} followed by {@code value}
+	 *
+	 * @param out	:	where to write	:	{@code Appendable}
+	 * @param name	:	the field name	:	{@code String}
+	 * @param value	:	the value to write	:	{@code long}
+	 * @throws IOException
+	 */
+	public static void field(Appendable out, String name, long value) throws IOException {
+		string(out, name);
+		out.append(':').append(Long.toString(value));
+	}
+
+}
@@ -0,0 +1,499 @@
+package visitor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A read only view of an environment tree saved with {@link EnvironmentWriter}
+ * <p>
+ * The file is memory mapped and answers type and declaration queries without javac: scopes and entries
+ * are identified by their index, in the same order they were written. Records have a fixed width, so opening
+ * a file only reads its header and every field is read from the mapped buffer when requested. Strings are
+ * only decoded when requested, the indexes used by {@link MappedEnvironment#findEntry(String, long, long)} and
+ * {@link MappedEnvironment#resolve(int, String, SymbolTable.Namespace)} are built on first use.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class MappedEnvironment implements Closeable {
+
+	/**
+	 * "JENV"
+	 */
+	public static final int MAGIC = 0x4A454E56;
+	public static final int VERSION = 4;
+
+	private static final int FIELDS = 8;
+	private static final int SCOPE = 0;
+	private static final int NAMESPACE = 1;
+	private static final int KIND = 2;
+	private static final int NAME = 3;
+	private static final int FILE = 4;
+	private static final int START = 5;
+	private static final int LENGTH = 6;
+	private static final int TYPE = 7;
+	/**
+	 * Magic, version, string count, scope count and entry count
+	 */
+	private static final int HEADER_SIZE = 5 * 4;
+	/**
+	 * Scope flag of block scopes
+	 */
+	private static final int ORDERED = 1;
+
+	protected RandomAccessFile source;
+	protected MappedByteBuffer buffer;
+	protected int stringCount;
+	protected int scopeCount;
+	protected int entries;
+	/**
+	 * Offsets in {@link MappedEnvironment#buffer} of the string index, the scopes and the entry records
+	 */
+	protected int stringIndexOffset;
+	protected int parentsOffset;
+	protected int recordsOffset;
+
+	private String[] strings;
+	private Map<String, Integer> stringIds;
+	/**
+	 * The declaring entries sorted by namespace, name, scope and entry
+	 */
+	private int[] declarations;
+	/**
+	 * All entries sorted by file, start position and entry
+	 */
+	private int[] byPosition;
+
+	protected MappedEnvironment(RandomAccessFile source) throws IOException {
+		this.source = source;
+		FileChannel channel = source.getChannel();
+		this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		if (this.buffer.capacity() < 8 || this.buffer.getInt(0) != MAGIC) {
+			throw new IOException("visitor.MappedEnvironment#MappedEnvironment : not an environment file");
+		}
+		int version = this.buffer.getInt(4);
+		if (version != VERSION) {
+			throw new IOException("visitor.MappedEnvironment#MappedEnvironment : unsupported version " + version + " (expected " + VERSION + ")");
+		}
+		if (this.buffer.capacity() < HEADER_SIZE) {
+			throw new IOException("visitor.MappedEnvironment#MappedEnvironment : truncated header");
+		}
+		this.stringCount = this.buffer.getInt(8);
+		this.scopeCount = this.buffer.getInt(12);
+		this.entries = this.buffer.getInt(16);
+		this.stringIndexOffset = HEADER_SIZE;
+		long parentsOffset = this.stringIndexOffset + this.stringCount * 8L;
+		long recordsOffset = parentsOffset + this.scopeCount * 8L;
+		long stringsOffset = recordsOffset + this.entries * (FIELDS * 4L);
+		if (this.stringCount < 0 || this.scopeCount < 0 || this.entries < 0 || stringsOffset > this.buffer.capacity()) {
+			throw new IOException("visitor.MappedEnvironment#MappedEnvironment : truncated or corrupt environment file");
+		}
+		this.parentsOffset = (int) parentsOffset;
+		this.recordsOffset = (int) recordsOffset;
+	}
+
+	/**
+	 * Maps an environment file
+	 *
+	 * @param file	:	a file written by {@link EnvironmentWriter}	:	{@code File}
+	 * @return the mapped environment	:	{@code MappedEnvironment}
+	 * @throws IOException if the file can't be read, is not an environment file or has an unsupported version
+	 */
+	public static MappedEnvironment open(File file) throws IOException {
+		RandomAccessFile source = new RandomAccessFile(file, "r");
+		try {
+			return new MappedEnvironment(source);
+		} catch (IOException | RuntimeException e) {
+			source.close();
+			throw e;
+		}
+	}
+
+	public int getScopeCount() {
+		return this.scopeCount;
+	}
+
+	public int getEntryCount() {
+		return this.entries;
+	}
+
+	/**
+	 * @param scope	:	a scope id	:	{@code int}
+	 * @return the id of the parent scope or {@code -1} for the root	:	{@code int}
+	 */
+	public int getParent(int scope) {
+		return this.buffer.getInt(this.parentsOffset + scope * 8) - 1;
+	}
+
+	/**
+	 * @param scope	:	a scope id	:	{@code int}
+	 * @return {@code true} if {@code scope} is a block scope, see {@link Environment#isOrdered()}	:	{@code boolean}
+	 */
+	public boolean isOrdered(int scope) {
+		return (this.buffer.getInt(this.parentsOffset + scope * 8 + 4) & ORDERED) != 0;
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the id of the scope containing {@code entry}	:	{@code int}
+	 */
+	public int getScope(int entry) {
+		return field(entry, SCOPE);
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the namespace declared by {@code entry} or {@code null} if it's not a declaration	:	{@code SymbolTable.Namespace}
+	 */
+	public SymbolTable.Namespace getNamespace(int entry) {
+		int namespace = field(entry, NAMESPACE);
+		return namespace == 0?null:SymbolTable.Namespace.values()[namespace - 1];
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the name of the {@code Tree.Kind} of the entry's tree	:	{@code String}
+	 */
+	public String getKind(int entry) {
+		return getString(field(entry, KIND));
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the declared name or {@code null} if {@code entry} is not a declaration	:	{@code String}
+	 */
+	public String getName(int entry) {
+		return getString(field(entry, NAME) - 1);
+	}
+
+	public String getFile(int entry) {
+		return getString(field(entry, FILE) - 1);
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the start position of the entry's tree or {@code -1} if unknown	:	{@code long}
+	 */
+	public long getStartPosition(int entry) {
+		return field(entry, START) - 1L;
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the end position of the entry's tree or {@code -1} if unknown	:	{@code long}
+	 */
+	public long getEndPosition(int entry) {
+		int length = field(entry, LENGTH);
+		return length == 0?-1L:getStartPosition(entry) + length - 1;
+	}
+
+	/**
+	 * @param entry	:	an entry id	:	{@code int}
+	 * @return the type of the entry's tree as written by javac or {@code null} if it had no type	:	{@code String}
+	 */
+	public String getType(int entry) {
+		return getString(field(entry, TYPE) - 1);
+	}
+
+	/**
+	 * Finds the entry of the tree spanning exactly from {@code start} to {@code end} in {@code file}
+	 *
+	 * @param file	:	the source file name	:	{@code String}
+	 * @param start	:	the start position of the tree	:	{@code long}
+	 * @param end	:	the end position of the tree or {@code -1} to take the widest tree starting at {@code start}	:	{@code long}
+	 * @return the entry id or {@code -1} if there is no such entry	:	{@code int}
+	 */
+	public int findEntry(String file, long start, long end) {
+		Integer fileId = getStringId(file);
+		if (fileId == null) {
+			return -1;
+		}
+		int[] index = getPositionIndex();
+		int low = 0;
+		int high = index.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int entry = index[middle];
+			int fileCmp = compare(field(entry, FILE) - 1, fileId);
+			if (fileCmp < 0 || (fileCmp == 0 && getStartPosition(entry) < start)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		int widest = -1;
+		for (int i = low; i < index.length; i++) {
+			int entry = index[i];
+			if (field(entry, FILE) - 1 != fileId || getStartPosition(entry) != start) {
+				break;
+			}
+			if (end < 0) {
+				if (widest == -1 || getEndPosition(entry) > getEndPosition(widest)) {
+					widest = entry;
+				}
+			} else if (getEndPosition(entry) == end) {
+				return entry;
+			}
+		}
+		return widest;
+	}
+
+	/**
+	 * The equivalent of {@link Environment#getType(com.sun.source.tree.Tree)} for a tree identified by its position
+	 *
+	 * @param file	:	the source file name	:	{@code String}
+	 * @param start	:	the start position of the tree	:	{@code long}
+	 * @param end	:	the end position of the tree or {@code -1}	:	{@code long}
+	 * @return the type of the tree or {@code null} if there is no entry for it or it had no type	:	{@code String}
+	 */
+	public String getType(String file, long start, long end) {
+		int entry = findEntry(file, start, end);
+		return entry == -1?null:getType(entry);
+	}
+
+	/**
+	 * The equivalent of {@link Environment#resolve(String, SymbolTable.Namespace)}, if a name is declared more than
+	 * once in a scope the last declaration written is returned
+	 *
+	 * @param scope		:	the scope where the name is used	:	{@code int}
+	 * @param name		:	the simple name to resolve	:	{@code String}
+	 * @param namespace	:	the namespace of the name	:	{@code SymbolTable.Namespace}
+	 * @return the id of the declaring entry or {@code -1} if {@code name} is not declared	:	{@code int}
+	 */
+	public int resolve(int scope, String name, SymbolTable.Namespace namespace) {
+		return resolve(scope, name, namespace, -1);
+	}
+
+	/**
+	 * The equivalent of {@link Environment#resolve(String, SymbolTable.Namespace, long)}, in block scopes
+	 * the last declaration written starting at or before {@code position} is returned
+	 *
+	 * @param scope		:	the scope where the name is used	:	{@code int}
+	 * @param name		:	the simple name to resolve	:	{@code String}
+	 * @param namespace	:	the namespace of the name	:	{@code SymbolTable.Namespace}
+	 * @param position	:	the start position of the use, {@code -1} if unknown	:	{@code long}
+	 * @return the id of the declaring entry or {@code -1} if {@code name} is not declared	:	{@code int}
+	 */
+	public int resolve(int scope, String name, SymbolTable.Namespace namespace, long position) {
+		Integer nameId = getStringId(name);
+		if (nameId == null) {
+			return -1;
+		}
+		int[] declarations = getDeclarations();
+		int namespaceField = namespace.ordinal() + 1;
+		int nameField = nameId + 1;
+		for (int current = scope; current != -1; current = getParent(current)) {
+			int last = lastDeclaration(declarations, namespaceField, nameField, current);
+			if (last == -1) {
+				continue;
+			}
+			if (position < 0 || !isOrdered(current)) {
+				return declarations[last];
+			}
+			for (int d = last; d >= 0; d--) {
+				int entry = declarations[d];
+				if (field(entry, NAMESPACE) != namespaceField || field(entry, NAME) != nameField || field(entry, SCOPE) != current) {
+					break;
+				}
+				long start = getStartPosition(entry);
+				if (start < 0 || start <= position) {
+					return entry;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * The equivalent of {@link Environment#resolve(String)}
+	 *
+	 * @param scope	:	the scope where the name is used	:	{@code int}
+	 * @param name	:	the simple name to resolve	:	{@code String}
+	 * @return the id of the declaring entry or {@code -1} if {@code name} is not declared	:	{@code int}
+	 */
+	public int resolve(int scope, String name) {
+		return resolve(scope, name, -1);
+	}
+
+	/**
+	 * The equivalent of {@link Environment#resolve(String, long)}
+	 *
+	 * @param scope		:	the scope where the name is used	:	{@code int}
+	 * @param name		:	the simple name to resolve	:	{@code String}
+	 * @param position	:	the start position of the use, {@code -1} if unknown	:	{@code long}
+	 * @return the id of the declaring entry or {@code -1} if {@code name} is not declared	:	{@code int}
+	 */
+	public int resolve(int scope, String name, long position) {
+		int declaration = resolve(scope, name, SymbolTable.Namespace.VARIABLE, position);
+		return declaration != -1?declaration:resolve(scope, name, SymbolTable.Namespace.TYPE, position);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.source.close();
+	}
+
+	/**
+	 * @return the value of {@code field} in the record of {@code entry}, read from the mapped file	:	{@code int}
+	 */
+	private int field(int entry, int field) {
+		return this.buffer.getInt(this.recordsOffset + (entry * FIELDS + field) * 4);
+	}
+
+	private String getString(int id) {
+		if (id < 0) {
+			return null;
+		}
+		if (this.strings == null) {
+			this.strings = new String[this.stringCount];
+		}
+		String string = this.strings[id];
+		if (string == null) {
+			int offset = this.buffer.getInt(this.stringIndexOffset + id * 8);
+			int length = this.buffer.getInt(this.stringIndexOffset + id * 8 + 4);
+			byte[] bytes = new byte[length];
+			ByteBuffer view = this.buffer.duplicate();
+			view.position(offset);
+			view.get(bytes);
+			string = new String(bytes, StandardCharsets.UTF_8);
+			this.strings[id] = string;
+		}
+		return string;
+	}
+
+	private Integer getStringId(String string) {
+		if (this.stringIds == null) {
+			this.stringIds = new HashMap<String, Integer>(this.stringCount * 2);
+			for (int s = 0; s < this.stringCount; s++) {
+				this.stringIds.put(getString(s), s);
+			}
+		}
+		return this.stringIds.get(string);
+	}
+
+	private int[] getDeclarations() {
+		if (this.declarations == null) {
+			int count = 0;
+			for (int entry = 0; entry < this.entries; entry++) {
+				if (field(entry, NAMESPACE) != 0) {
+					count++;
+				}
+			}
+			int[] declarations = new int[count];
+			count = 0;
+			for (int entry = 0; entry < this.entries; entry++) {
+				if (field(entry, NAMESPACE) != 0) {
+					declarations[count++] = entry;
+				}
+			}
+			sort(declarations, new EntryOrder() {
+				@Override
+				int compare(int a, int b) {
+					int cmp = MappedEnvironment.compare(field(a, NAMESPACE), field(b, NAMESPACE));
+					if (cmp == 0) {
+						cmp = MappedEnvironment.compare(field(a, NAME), field(b, NAME));
+					}
+					return cmp != 0?cmp:MappedEnvironment.compare(field(a, SCOPE), field(b, SCOPE));
+				}
+			});
+			this.declarations = declarations;
+		}
+		return this.declarations;
+	}
+
+	/**
+	 * @return the position in {@code declarations} of the last entry declaring {@code name} in {@code namespace} and {@code scope}, or {@code -1}	:	{@code int}
+	 */
+	private int lastDeclaration(int[] declarations, int namespace, int name, int scope) {
+		int low = 0;
+		int high = declarations.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int entry = declarations[middle];
+			int cmp = compare(field(entry, NAMESPACE), namespace);
+			if (cmp == 0) {
+				cmp = compare(field(entry, NAME), name);
+			}
+			if (cmp == 0) {
+				cmp = compare(field(entry, SCOPE), scope);
+			}
+			if (cmp <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		if (low == 0) {
+			return -1;
+		}
+		int entry = declarations[low - 1];
+		return field(entry, NAMESPACE) == namespace && field(entry, NAME) == name && field(entry, SCOPE) == scope?low - 1:-1;
+	}
+
+	private int[] getPositionIndex() {
+		if (this.byPosition == null) {
+			int[] byPosition = new int[this.entries];
+			for (int entry = 0; entry < this.entries; entry++) {
+				byPosition[entry] = entry;
+			}
+			sort(byPosition, new EntryOrder() {
+				@Override
+				int compare(int a, int b) {
+					int byFile = MappedEnvironment.compare(field(a, FILE), field(b, FILE));
+					return byFile != 0?byFile:MappedEnvironment.compare(field(a, START), field(b, START));
+				}
+			});
+			this.byPosition = byPosition;
+		}
+		return this.byPosition;
+	}
+
+	private static int compare(int a, int b) {
+		return a < b?-1:(a == b?0:1);
+	}
+
+	/**
+	 * An order over entry ids
+	 */
+	private static abstract class EntryOrder {
+		abstract int compare(int a, int b);
+	}
+
+	/**
+	 * Sorts {@code entries} with a stable merge sort, so entries that {@code order} considers equal keep their relative order
+	 */
+	private static void sort(int[] entries, EntryOrder order) {
+		int[] from = entries;
+		int[] to = new int[entries.length];
+		for (int width = 1; width < entries.length; width *= 2) {
+			for (int low = 0; low < entries.length; low += width * 2) {
+				int middle = Math.min(low + width, entries.length);
+				int high = Math.min(low + width * 2, entries.length);
+				int left = low;
+				int right = middle;
+				for (int target = low; target < high; target++) {
+					if (left < middle && (right == high || order.compare(from[left], from[right]) <= 0)) {
+						to[target] = from[left++];
+					} else {
+						to[target] = from[right++];
+					}
+				}
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		if (from != entries) {
+			System.arraycopy(from, 0, entries, 0, entries.length);
+		}
+	}
+
+}
@@ -0,0 +1,131 @@
+package visitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Array backed stack of the currently open {@link Environment}s of an environment tree
+ * <p>
+ * The bottom of the stack is always the root environment and the top is the innermost open scope,
+ * both can be accessed in constant time. Every environment ever pushed is also kept, in creation order,
+ * so that closed scopes can still be queried and dumped, together with state shared by all scopes
+ * like the {@link TypeCache} and the {@link CollectorConfiguration}.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class ScopeStack {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The open scopes, {@code scopes[0]} is the root and {@code scopes[top]} the leaf
+	 */
+	protected Environment[] scopes;
+	protected int top;
+	/**
+	 * All the scopes of the environment tree in creation order
+	 */
+	protected List<Environment> created;
+	/**
+	 * The type cache shared by all the scopes
+	 */
+	protected TypeCache typeCache;
+	/**
+	 * The configuration of the collection
+	 */
+	protected CollectorConfiguration configuration;
+
+	public ScopeStack(Environment root, CollectorConfiguration configuration) {
+		this.scopes = new Environment[INITIAL_CAPACITY];
+		this.scopes[0] = root;
+		this.top = 0;
+		this.created = new ArrayList<Environment>();
+		this.created.add(root);
+		this.typeCache = new TypeCache();
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Pushes {@code scope} on top of its parent, closing any scope opened after the parent. If the parent
+	 * was already closed it's reopened together with its ancestors.
+	 *
+	 * @param scope	:	the scope to push, its depth must be greater than {@code 0}	:	{@code Environment}
+	 */
+	protected void push(Environment scope) {
+		if (scope.depth >= this.scopes.length) {
+			this.scopes = Arrays.copyOf(this.scopes, Math.max(this.scopes.length * 2, scope.depth + 1));
+		}
+		for (int s = scope.depth + 1; s <= this.top; s++) {
+			this.scopes[s] = null;
+		}
+		Environment current = scope;
+		while (current != null && this.scopes[current.depth] != current) {
+			this.scopes[current.depth] = current;
+			current = current.parent;
+		}
+		this.top = scope.depth;
+		this.created.add(scope);
+	}
+
+	/**
+	 * Closes {@code scope} and all the scopes opened inside it, the root scope can't be closed
+	 *
+	 * @param scope	:	the scope to close	:	{@code Environment}
+	 */
+	protected void pop(Environment scope) {
+		if (scope.depth == 0 || scope.depth > this.top || this.scopes[scope.depth] != scope) {
+			return;
+		}
+		for (int s = scope.depth; s <= this.top; s++) {
+			this.scopes[s] = null;
+		}
+		this.top = scope.depth - 1;
+	}
+
+	/**
+	 * Moves all the scopes of {@code other} except its root into this stack, used when merging
+	 * environment trees
+	 *
+	 * @param other	:	the stack to adopt	:	{@code ScopeStack}
+	 */
+	protected void adopt(ScopeStack other) {
+		for (int s = 1; s < other.created.size(); s++) {
+			Environment scope = other.created.get(s);
+			scope.stack = this;
+			this.created.add(scope);
+		}
+		other.created.subList(1, other.created.size()).clear();
+	}
+
+	/**
+	 * @return the innermost open scope	:	{@code Environment}
+	 */
+	public Environment leaf() {
+		return this.scopes[this.top];
+	}
+
+	/**
+	 * @return the root scope	:	{@code Environment}
+	 */
+	public Environment root() {
+		return this.scopes[0];
+	}
+
+	/**
+	 * @return the depth of the innermost open scope, {@code 0} means only the root is open	:	{@code int}
+	 */
+	public int depth() {
+		return this.top;
+	}
+
+	/**
+	 * @return all scopes of the environment tree in creation order	:	{@code List<Environment>}
+	 */
+	public List<Environment> getScopes() {
+		return Collections.unmodifiableList(this.created);
+	}
+
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.sun.source.tree.*;
 import com.sun.source.tree.Tree.Kind;
+import com.sun.source.util.TreePath;
 import com.sun.source.util.Trees;
 
 /**
@@ -19,10 +20,35 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
 	protected CompilationUnitTree compilationUnit;
 	protected Trees trees;
 	protected boolean visitingVariable = false;
+	/**
+	 * The path from the compilation unit to the node being visited, kept while descending so entries
+	 * don't need to search the compilation unit for their paths
+	 */
+	protected TreePath currentPath;
+	/**
+	 * The configuration of the collection
+	 */
+	protected CollectorConfiguration configuration;
 	
 	
-	public SignatureCollectorVisitor(Trees trees) {
+	public SignatureCollectorVisitor(Trees trees, CollectorConfiguration configuration) {
 		this.trees = trees;
+		this.configuration = configuration;
+	}
+	
+	public SignatureCollectorVisitor(Trees trees) {
+		this(trees, new CollectorConfiguration());
+	}
+	
+	/**
+	 * @return a new root environment using this visitor's {@code Trees} and configuration	:	{@code Environment}
+	 */
+	public Environment createEnvironment() {
+		return new Environment(this.trees, this.configuration);
+	}
+	
+	public CollectorConfiguration getConfiguration() {
+		return this.configuration;
 	}
 	
 	protected void visitingVariable(boolean value) {
@@ -42,8 +68,21 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
         return null;
     }
 
+    /**
+     * Visits {@code node} keeping {@link SignatureCollectorVisitor#currentPath} pointing to it
+     * while the node is visited
+     */
     public final Void visit(Tree node, Environment env) {
-        return (node == null) ? null : node.accept(this, env);
+        if (node == null) {
+        	return null;
+        }
+        TreePath parentPath = this.currentPath;
+        this.currentPath = new TreePath(parentPath, node);
+        try {
+        	return node.accept(this, env);
+        } finally {
+        	this.currentPath = parentPath;
+        }
     }
 
     public final Void visit(Iterable<? extends Tree> nodes, Environment env) {
@@ -56,27 +95,28 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
 
     public Void visitCompilationUnit(CompilationUnitTree node, Environment env) {
     	this.compilationUnit = node;
-    	env.addEntry(node);
+    	this.currentPath = new TreePath(node);
+    	env.addEntry(this.currentPath);
         List<? extends AnnotationTree> annotations = node.getPackageAnnotations();
         if (annotations != null && !annotations.isEmpty()) {
         	for (AnnotationTree ann : annotations) {
-        		ann.accept(this, env);
+        		visit(ann, env);
         	}
         }
         if (node.getPackageName() != null) {
-        	node.getPackageName().accept(this, env);
+        	visit(node.getPackageName(), env);
         }
         List<? extends ImportTree> imports = node.getImports();
         if (imports != null && !imports.isEmpty()) {
         	for (ImportTree imp : imports) {
-        		imp.accept(this, env);
+        		visit(imp, env);
         	}
         }
         if (node.getTypeDecls() != null) {
         	if (!node.getTypeDecls().isEmpty()) {
         		List<? extends Tree> decls = node.getTypeDecls();
         		for (Tree decl : decls) {
-        			decl.accept(this, env);
+        			visit(decl, env);
         		}
         	}
         }
@@ -84,44 +124,48 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
     }
 
     public Void visitImport(ImportTree node, Environment env) {
-    	env.addEntry(this.compilationUnit, node);
+    	env.addEntry(this.currentPath);
         return defaultAction(node, env);
     }
 
     public Void visitClass(ClassTree node, Environment env) {
-        env.addEntry(this.compilationUnit, node);
-        Environment classEnv = new Environment(env);
+        env.addEntry(this.currentPath);
+        Environment classEnv = env.openScope();
         List<? extends Tree> members = node.getMembers();
         if (members != null && !members.isEmpty()) {
             incLevel();
         	for (Tree m : members) {
-        		m.accept(this, classEnv);
+        		visit(m, classEnv);
         	}
         	decLevel();
         }
+        classEnv.closeScope();
     	return defaultAction(node, env);
     }
 
     public Void visitMethod(MethodTree node, Environment env) {
-    	env.addEntry(this.compilationUnit, node);
-    	Environment methodEnv = new Environment(env);
+    	env.addEntry(this.currentPath);
+    	Environment methodEnv = env.openScope();
         List<? extends VariableTree> params = node.getParameters();
         if (params != null && !params.isEmpty()) {
         	for (int p = 0; p < params.size(); p++) {
-        		params.get(p).accept(this, methodEnv);
+        		visit(params.get(p), methodEnv);
         	}
         }
         if (node.getBody() != null) {
-        	node.getBody().accept(this, methodEnv);
+        	visit(node.getBody(), methodEnv);
         }
+        methodEnv.closeScope();
         return defaultAction(node, env);
     }
 
     public Void visitVariable(VariableTree node, Environment env) {
-    	env.addEntry(this.compilationUnit, node);
-    	env.addEntry(this.compilationUnit, node.getType());
+    	env.addEntry(this.currentPath);
+    	if (this.configuration.records(node.getType())) {
+    		env.addEntry(new TreePath(this.currentPath, node.getType()));
+    	}
     	if (node.getInitializer() != null) {
-    		node.getInitializer().accept(this, env);
+    		visit(node.getInitializer(), env);
     	}
     	return defaultAction(node, env);
     }
@@ -133,196 +177,158 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
     public Void visitBlock(BlockTree node, Environment env) {
         List<? extends StatementTree> statements = node.getStatements();
         if (statements != null && !statements.isEmpty()) {
+        	Environment blockEnv = env.openBlockScope();
         	incLevel();
         	for (int st = 0; st < statements.size(); st++) {
-        		Environment stmtEnv = new Environment(env.getLeafEnvironment());
-        		statements.get(st).accept(this, stmtEnv);
+        		visit(statements.get(st), blockEnv);
         	}
         	decLevel();
+        	blockEnv.closeScope();
         }
     	return defaultAction(node, env);
     }
 
     public Void visitDoWhileLoop(DoWhileLoopTree node, Environment env) {
-        Environment whileEnv = new Environment(env);
-    	if (node.getStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getStatement().accept(this, whileEnv);
-        } else {
-        	incLevel();
-        	Environment stmtEnv = new Environment(whileEnv);
-        	node.getStatement().accept(this, stmtEnv);
-        	decLevel();
-        }
-        node.getCondition().accept(this, whileEnv.getLeafEnvironment());
+    	visitBody(node.getStatement(), env);
+        visit(node.getCondition(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitWhileLoop(WhileLoopTree node, Environment env) {
-    	Environment whileEnv = new Environment(env);
-    	node.getCondition().accept(this, whileEnv);
-        if (node.getStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getStatement().accept(this, whileEnv);
-        } else {
-        	incLevel();
-        	Environment stmtEnv = new Environment(whileEnv);
-        	node.getStatement().accept(this, stmtEnv);
-        	decLevel();
-        }
+    	visit(node.getCondition(), env);
+    	visitBody(node.getStatement(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitForLoop(ForLoopTree node, Environment env) {
-        Environment forEnv = new Environment(env);
+        Environment forEnv = env.openBlockScope();
     	List<? extends StatementTree> initializers = node.getInitializer();
         if (initializers != null && !initializers.isEmpty()) {
         	for (int ini = 0; ini < initializers.size(); ini++) {
-        		Environment initEnv = new Environment(forEnv.getLeafEnvironment());
-        		initializers.get(ini).accept(this, initEnv);
+        		visit(initializers.get(ini), forEnv);
         	}
         }
         ExpressionTree condition = node.getCondition();
         if (condition != null) {
-        	condition.accept(this, forEnv.getLeafEnvironment());
+        	visit(condition, forEnv);
         }
         List<? extends ExpressionStatementTree> updates = node.getUpdate();
         if (updates != null && !updates.isEmpty()) {
         	for (int up = 0; up < updates.size(); up++) {
-        		updates.get(up).accept(this, forEnv.getLeafEnvironment());
+        		visit(updates.get(up), forEnv);
         	}
         }
-        if (node.getStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getStatement().accept(this, forEnv.getLeafEnvironment());
-        } else {
-        	incLevel();
-        	Environment stmtEnv = new Environment(forEnv.getLeafEnvironment());
-        	node.getStatement().accept(this, stmtEnv);
-        	decLevel();
-        }
+        visitBody(node.getStatement(), forEnv);
+        forEnv.closeScope();
     	return defaultAction(node, env);
     }
 
     public Void visitEnhancedForLoop(EnhancedForLoopTree node, Environment env) {
-    	Environment forEnv = new Environment(env);
-    	node.getVariable().accept(this, forEnv);
-        node.getExpression().accept(this, forEnv);
-        if (node.getStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getStatement().accept(this, forEnv);
-        } else {
-        	incLevel();
-        	Environment stmtEnv = new Environment(forEnv.getLeafEnvironment());
-        	node.getStatement().accept(this, stmtEnv);
-        	decLevel();
-        }
+    	Environment forEnv = env.openBlockScope();
+    	visit(node.getVariable(), forEnv);
+        visit(node.getExpression(), forEnv);
+        visitBody(node.getStatement(), forEnv);
+        forEnv.closeScope();
     	return defaultAction(node, env);
     }
 
     public Void visitLabeledStatement(LabeledStatementTree node, Environment env) {
-    	Environment labelEnv = new Environment(env);
-    	if (node.getStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getStatement().accept(this, labelEnv);
-        } else {
-        	incLevel();
-        	node.getStatement().accept(this, labelEnv);
-        	decLevel();
-        }
+    	visitBody(node.getStatement(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitSwitch(SwitchTree node, Environment env) {
-        Environment switchEnv = new Environment(env);
-    	node.getExpression().accept(this, switchEnv);
+    	visit(node.getExpression(), env);
         List<? extends CaseTree> cases = node.getCases();
         if (cases != null && !cases.isEmpty()) {
+        	Environment switchEnv = env.openBlockScope();
         	incLevel();
         	for (int c = 0; c < cases.size(); c++) {
-        		cases.get(c).accept(this, switchEnv);
+        		visit(cases.get(c), switchEnv);
         	}
         	decLevel();
+        	switchEnv.closeScope();
         }
     	return defaultAction(node, env);
     }
 
     public Void visitCase(CaseTree node, Environment env) {
-        Environment caseEnv = new Environment(env.getLeafEnvironment());
     	if (node.getExpression() != null) {	
-        	node.getExpression().accept(this, caseEnv);
+        	visit(node.getExpression(), env);
         }
         List<? extends StatementTree> statements = node.getStatements();
         if (statements != null && !statements.isEmpty()) {
-        	if (statements.size() == 1) {
-        		Environment stmtEnv = new Environment(caseEnv.getLeafEnvironment());
-        		statements.get(0).accept(this, stmtEnv);
-        	} else {
-        		incLevel();
-        		for (int s = 0; s < statements.size(); s++) {
-        			Environment stmtEnv = new Environment(caseEnv.getLeafEnvironment());
-        			statements.get(s).accept(this, stmtEnv);
-        		}
-        		decLevel();	
+        	incLevel();
+        	for (int s = 0; s < statements.size(); s++) {
+        		visit(statements.get(s), env);
         	}
+        	decLevel();
         }
     	return defaultAction(node, env);
     }
 
     public Void visitSynchronized(SynchronizedTree node, Environment env) {
-        Environment syncEnv = new Environment(env);
-    	node.getExpression().accept(this, syncEnv);
-        node.getBlock().accept(this, syncEnv);
+    	visit(node.getExpression(), env);
+        visit(node.getBlock(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitTry(TryTree node, Environment env) {
-        node.getBlock().accept(this, env);
+        visit(node.getBlock(), env);
         List<? extends CatchTree> catches = node.getCatches();
         if (catches != null && !catches.isEmpty()) {
         	for (int c = 0; c < catches.size(); c++) {
-        		catches.get(c).accept(this, env.getLeafEnvironment());
+        		visit(catches.get(c), env);
         	}
         }
         if (node.getFinallyBlock() != null) {
-        	node.getFinallyBlock().accept(this, env.getLeafEnvironment());
+        	visit(node.getFinallyBlock(), env);
         }
     	return defaultAction(node, env);
     }
 
     public Void visitCatch(CatchTree node, Environment env) {
-    	Environment catchEnv = new Environment(env);
-        node.getParameter().accept(this, catchEnv);
-        node.getBlock().accept(this, catchEnv);
+    	Environment catchEnv = env.openBlockScope();
+        visit(node.getParameter(), catchEnv);
+        visit(node.getBlock(), catchEnv);
+        catchEnv.closeScope();
     	return defaultAction(node, env);
     }
 
     public Void visitConditionalExpression(ConditionalExpressionTree node, Environment env) {
-    	node.getCondition().accept(this, env);
-    	node.getTrueExpression().accept(this, env);
-    	node.getFalseExpression().accept(this, env);
+    	visit(node.getCondition(), env);
+    	visit(node.getTrueExpression(), env);
+    	visit(node.getFalseExpression(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitIf(IfTree node, Environment env) {
-    	Environment ifEnv = new Environment(env);
-    	node.getCondition().accept(this, env);
-    	if (node.getThenStatement() != null && node.getThenStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getThenStatement().accept(this, ifEnv);
-        } else if (node.getThenStatement() != null) {
-        	incLevel();
-        	Environment stmtEnv = new Environment(ifEnv.getLeafEnvironment());
-        	node.getThenStatement().accept(this, stmtEnv);
-        	decLevel();
-        }
-    	Environment elseEnv = node.getElseStatement()!=null?new Environment(ifEnv.getLeafEnvironment()):null;
-    	if (node.getElseStatement() != null && node.getElseStatement().getKind().compareTo(Kind.BLOCK) == 0) {
-        	node.getElseStatement().accept(this, elseEnv);
-        } else if (node.getElseStatement() != null) {
-        	incLevel();
-        	node.getElseStatement().accept(this, elseEnv);
-        	decLevel();
-        }
+    	visit(node.getCondition(), env);
+    	if (node.getThenStatement() != null) {
+    		visitBody(node.getThenStatement(), env);
+    	}
+    	if (node.getElseStatement() != null) {
+    		visitBody(node.getElseStatement(), env);
+    	}
         return defaultAction(node, env);
     }
 
+    /**
+     * Visits the body of a compound statement, blocks open their own scope and single statements
+     * can't declare anything, so no scope is needed here
+     */
+    protected void visitBody(StatementTree body, Environment env) {
+    	if (body.getKind().compareTo(Kind.BLOCK) == 0) {
+    		visit(body, env);
+    	} else {
+    		incLevel();
+    		visit(body, env);
+    		decLevel();
+    	}
+    }
+
     public Void visitExpressionStatement(ExpressionStatementTree node, Environment env) {
-        node.getExpression().accept(this, env);
+        visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
@@ -336,99 +342,99 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
 
     public Void visitReturn(ReturnTree node, Environment env) {
         if (node.getExpression() != null) {	
-        	node.getExpression().accept(this, env);
+        	visit(node.getExpression(), env);
         }
     	return defaultAction(node, env);
     }
 
     public Void visitThrow(ThrowTree node, Environment env) {
-        node.getExpression().accept(this, env);
+        visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitAssert(AssertTree node, Environment env) {
-        node.getCondition().accept(this, env);
+        visit(node.getCondition(), env);
         if (node.getDetail() != null) {
-        	node.getDetail().accept(this, env);
+        	visit(node.getDetail(), env);
         }
     	return defaultAction(node, env);
     }
 
     public Void visitMethodInvocation(MethodInvocationTree node, Environment env) {
-    	Environment methodInvocationEnv = new Environment(env);
     	List<? extends Tree> typeArguments = node.getTypeArguments();
     	if (typeArguments != null && !typeArguments.isEmpty()) {
     		for (int ta = 0; ta < typeArguments.size(); ta++) {
-    			typeArguments.get(ta).accept(this, methodInvocationEnv.getLeafEnvironment());
+    			visit(typeArguments.get(ta), env);
     		}
     	}
-    	node.getMethodSelect().accept(this, methodInvocationEnv.getLeafEnvironment());
+    	visit(node.getMethodSelect(), env);
     	List<? extends ExpressionTree> params = node.getArguments();
     	if (params != null && !params.isEmpty()) {
     		for (int param = 0; param < params.size(); param++) {
-    			params.get(param).accept(this, methodInvocationEnv.getLeafEnvironment());
+    			visit(params.get(param), env);
     		}
     	}
     	return defaultAction(node, env);
     }
 
     public Void visitNewClass(NewClassTree node, Environment env) {
-        Environment newClassEnv = new Environment(env);
     	if (node.getEnclosingExpression() != null) {
         	ExpressionTree enclosingExpression = node.getEnclosingExpression();
-        	enclosingExpression.accept(this, newClassEnv);
+        	visit(enclosingExpression, env);
         }
-        node.getIdentifier().accept(this, newClassEnv);
+        visit(node.getIdentifier(), env);
         List<? extends Tree> typeArguments = node.getTypeArguments();
         if (typeArguments != null && !typeArguments.isEmpty()) {
         	for (int ta = 0; ta < typeArguments.size(); ta++) {
-        		typeArguments.get(ta).accept(this, newClassEnv.getLeafEnvironment());
+        		visit(typeArguments.get(ta), env);
         	}	
         }
         List<? extends ExpressionTree> arguments = node.getArguments();
         if (arguments != null && !arguments.isEmpty()) {
         	for (int a = 0; a < arguments.size(); a++) {
-        		arguments.get(a).accept(this, newClassEnv.getLeafEnvironment());
+        		visit(arguments.get(a), env);
         	}
         } 
-        Environment bodyEnv = node.getClassBody()==null?null:new Environment(newClassEnv.getLeafEnvironment());
         if (node.getClassBody() != null) {
         	incLevel();
-        	node.getClassBody().accept(this, bodyEnv.getLeafEnvironment());
+        	visit(node.getClassBody(), env);
         	decLevel();
         }
     	return defaultAction(node, env);
     }
 
     public Void visitNewArray(NewArrayTree node, Environment env) {
-        Environment newArrayEnv = new Environment(env);
-    	node.getType().accept(this, newArrayEnv);
+    	if (node.getType() != null) {
+    		visit(node.getType(), env);
+    	}
         List<? extends ExpressionTree> dimensions = node.getDimensions();
         if (dimensions != null && !dimensions.isEmpty()) {
         	for (int dim = 0; dim < dimensions.size(); dim++) {
-        		dimensions.get(dim).accept(this, newArrayEnv);
+        		visit(dimensions.get(dim), env);
         	}
         }
         List<? extends ExpressionTree> initializers = node.getInitializers();
-        for (int ini = 0; ini < initializers.size(); ini++) {
-        	initializers.get(ini).accept(this, newArrayEnv);
+        if (initializers != null && !initializers.isEmpty()) {
+        	for (int ini = 0; ini < initializers.size(); ini++) {
+        		visit(initializers.get(ini), env);
+        	}
         }
-    	return defaultAction(node, newArrayEnv);
+    	return defaultAction(node, env);
     }
 
     public Void visitParenthesized(ParenthesizedTree node, Environment env) {
-        node.getExpression().accept(this, env);
+        visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitAssignment(AssignmentTree node, Environment env) {
-    	node.getVariable().accept(this, env);
-    	node.getExpression().accept(this, env);
+    	visit(node.getVariable(), env);
+    	visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitCompoundAssignment(CompoundAssignmentTree node, Environment env) {
-    	node.getVariable().accept(this, env);
+    	visit(node.getVariable(), env);
     	switch (node.getKind()) {
 			case AND_ASSIGNMENT: {
 				break;
@@ -471,7 +477,7 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
 				break;
 			}
     	}
-    	node.getExpression().accept(this, env);
+    	visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
@@ -504,12 +510,12 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
 			default:
 				break;
         }
-        node.getExpression().accept(this, env);
+        visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitBinary(BinaryTree node, Environment env) {
-        node.getLeftOperand().accept(this, env);
+        visit(node.getLeftOperand(), env);
         switch (node.getKind()) {
 			case AND: {
 				break;
@@ -571,36 +577,36 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
 			default:
 				break;
         }
-        node.getRightOperand().accept(this, env);
+        visit(node.getRightOperand(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitTypeCast(TypeCastTree node, Environment env) {
-    	node.getType().accept(this, env);
-    	node.getExpression().accept(this, env);
+    	visit(node.getType(), env);
+    	visit(node.getExpression(), env);
         return defaultAction(node, env);
     }
 
     public Void visitInstanceOf(InstanceOfTree node, Environment env) {
-        node.getExpression().accept(this, env);
-        node.getType().accept(this, env);
+        visit(node.getExpression(), env);
+        visit(node.getType(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitArrayAccess(ArrayAccessTree node, Environment env) {
-        node.getExpression().accept(this, env);  
-        node.getIndex().accept(this, env);
+        visit(node.getExpression(), env);
+        visit(node.getIndex(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitMemberSelect(MemberSelectTree node, Environment env) {
-        node.getExpression().accept(this, env);
+        visit(node.getExpression(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitIdentifier(IdentifierTree node, Environment env) {
         if (this.visitingVariable) {
-        	env.addEntry(this.compilationUnit, node);
+        	env.addEntry(this.currentPath);
         }
     	return defaultAction(node, env);
     }
@@ -642,18 +648,16 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
     }
 
     public Void visitArrayType(ArrayTypeTree node, Environment env) {
-        node.getType().accept(this, env);
+        visit(node.getType(), env);
     	return defaultAction(node, env);
     }
 
     public Void visitParameterizedType(ParameterizedTypeTree node, Environment env) {
-    	Environment parameterizedType = new Environment(env);
-    	node.getType().accept(this, parameterizedType);
+    	visit(node.getType(), env);
         List<? extends Tree> typeParameters = node.getTypeArguments();
         if (typeParameters != null && !typeParameters.isEmpty()) {
         	for (int tp = 0; tp < typeParameters.size(); tp++) {
-        		Environment paramType = new Environment(parameterizedType.getLeafEnvironment());
-        		typeParameters.get(tp).accept(this, paramType);
+        		visit(typeParameters.get(tp), env);
         	}
         	
         }
@@ -661,19 +665,17 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
     }
 
     public Void visitTypeParameter(TypeParameterTree node, Environment env) {
-    	env.addEntry(this.compilationUnit, node);
+    	env.addEntry(this.currentPath);
     	List<? extends Tree> bounds = node.getBounds();
     	if (bounds != null && !bounds.isEmpty()) {
     		for (int bound = 0; bound < bounds.size(); bound++) {
-    			Environment boundEnv = new Environment(env.getLeafEnvironment());
-    			bounds.get(bound).accept(this, boundEnv);
+    			visit(bounds.get(bound), env);
     		}
     	}
         return defaultAction(node, env);
     }
 
     public Void visitWildcard(WildcardTree node, Environment env) {
-    	Environment wildcardEnv = new Environment(env);
     	Tree bound = node.getBound();
     	boolean bounded = false;
     	if (bound != null) {
@@ -695,7 +697,7 @@ public class SignatureCollectorVisitor implements TreeVisitor<Void,Environment>
     		}
     	}
     	if (bounded && node.getBound() != null) {
-    		node.getBound().accept(this, wildcardEnv);
+    		visit(node.getBound(), env);
     	}
         return defaultAction(node, env);
     }
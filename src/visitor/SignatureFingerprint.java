@@ -0,0 +1,194 @@
+package visitor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.lang.model.element.Modifier;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.ModifiersTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.TypeParameterTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+
+/**
+ * The parts of a compilation unit other compilation units can depend on
+ * <p>
+ * The signature hash covers the package, the imports and every non private class, method and field
+ * declaration (without method bodies or field initializers, except for constant initializers since javac
+ * inlines them), so it only changes when a change in the compilation unit can affect other ones. The
+ * declared types and referenced names are used to find which compilation units may depend on which.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class SignatureFingerprint {
+
+	protected String signatureHash;
+	protected Set<String> declaredTypes;
+	protected Set<String> referencedNames;
+
+	public SignatureFingerprint(String signatureHash, Set<String> declaredTypes, Set<String> referencedNames) {
+		this.signatureHash = signatureHash;
+		this.declaredTypes = declaredTypes;
+		this.referencedNames = referencedNames;
+	}
+
+	/**
+	 * Computes the fingerprint of a parsed compilation unit
+	 *
+	 * @param cu	:	the compilation unit	:	{@code CompilationUnitTree}
+	 * @return the fingerprint of {@code cu}	:	{@code SignatureFingerprint}
+	 */
+	public static SignatureFingerprint of(CompilationUnitTree cu) {
+		StringBuilder signature = new StringBuilder();
+		signature.append("package ").append(String.valueOf(cu.getPackageName())).append('\n');
+		for (Tree anImport : cu.getImports()) {
+			signature.append(anImport.toString().trim()).append('\n');
+		}
+		Set<String> declaredTypes = new TreeSet<String>();
+		for (Tree typeDecl : cu.getTypeDecls()) {
+			if (typeDecl instanceof ClassTree) {
+				appendClass((ClassTree) typeDecl, signature, declaredTypes);
+			}
+		}
+		final Set<String> referencedNames = new TreeSet<String>();
+		new TreeScanner<Void, Void>() {
+			@Override
+			public Void visitIdentifier(IdentifierTree node, Void p) {
+				referencedNames.add(node.getName().toString());
+				return null;
+			}
+
+			@Override
+			public Void visitMemberSelect(MemberSelectTree node, Void p) {
+				referencedNames.add(node.getIdentifier().toString());
+				return super.visitMemberSelect(node, p);
+			}
+		}.scan(cu, null);
+		return new SignatureFingerprint(hash(signature), declaredTypes, referencedNames);
+	}
+
+	private static void appendClass(ClassTree node, StringBuilder signature, Set<String> declaredTypes) {
+		declaredTypes.add(node.getSimpleName().toString());
+		if (isPrivate(node.getModifiers())) {
+			return;
+		}
+		appendModifiers(node.getModifiers(), signature);
+		signature.append(node.getKind()).append(' ').append(node.getSimpleName());
+		appendTypeParameters(node.getTypeParameters(), signature);
+		signature.append(" extends ").append(String.valueOf(node.getExtendsClause()));
+		signature.append(" implements ").append(node.getImplementsClause()).append(" {\n");
+		for (Tree member : node.getMembers()) {
+			if (member instanceof ClassTree) {
+				appendClass((ClassTree) member, signature, declaredTypes);
+			} else if (member instanceof MethodTree) {
+				MethodTree method = (MethodTree) member;
+				if (!isPrivate(method.getModifiers())) {
+					appendModifiers(method.getModifiers(), signature);
+					appendTypeParameters(method.getTypeParameters(), signature);
+					signature.append(String.valueOf(method.getReturnType())).append(' ').append(method.getName()).append('(');
+					for (VariableTree parameter : method.getParameters()) {
+						signature.append(parameter.getType()).append(',');
+					}
+					signature.append(") throws ").append(method.getThrows());
+					signature.append(" default ").append(String.valueOf(method.getDefaultValue())).append(";\n");
+				}
+			} else if (member instanceof VariableTree) {
+				VariableTree field = (VariableTree) member;
+				if (!isPrivate(field.getModifiers())) {
+					appendModifiers(field.getModifiers(), signature);
+					signature.append(field.getType()).append(' ').append(field.getName());
+					Set<Modifier> flags = field.getModifiers().getFlags();
+					if (flags.contains(Modifier.STATIC) && flags.contains(Modifier.FINAL) && field.getInitializer() != null) {
+						signature.append(" = ").append(field.getInitializer());
+					}
+					signature.append(";\n");
+				}
+			}
+		}
+		signature.append("}\n");
+	}
+
+	private static void appendTypeParameters(List<? extends TypeParameterTree> typeParameters, StringBuilder signature) {
+		for (TypeParameterTree typeParameter : typeParameters) {
+			signature.append('<').append(typeParameter).append('>');
+		}
+	}
+
+	private static void appendModifiers(ModifiersTree modifiers, StringBuilder signature) {
+		signature.append(modifiers.toString().replace('\n', ' ').trim()).append(' ');
+	}
+
+	private static boolean isPrivate(ModifiersTree modifiers) {
+		return modifiers.getFlags().contains(Modifier.PRIVATE);
+	}
+
+	/**
+	 * @param text	:	the text to hash	:	{@code CharSequence}
+	 * @return the SHA-1 of {@code text} as hexadecimal	:	{@code String}
+	 */
+	public static String hash(CharSequence text) {
+		return hash(text.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param bytes	:	the bytes to hash	:	{@code byte[]}
+	 * @return the SHA-1 of {@code bytes} as hexadecimal	:	{@code String}
+	 */
+	public static String hash(byte[] bytes) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("visitor.SignatureFingerprint#hash", e);
+		}
+		byte[] sha = digest.digest(bytes);
+		StringBuilder hex = new StringBuilder(sha.length * 2);
+		for (byte b : sha) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	public String getSignatureHash() {
+		return this.signatureHash;
+	}
+
+	/**
+	 * @return the simple names of all the classes declared in the compilation unit, including private and nested ones	:	{@code Set<String>}
+	 */
+	public Set<String> getDeclaredTypes() {
+		return this.declaredTypes;
+	}
+
+	/**
+	 * @return the simple names used in the compilation unit, as identifiers or selected members	:	{@code Set<String>}
+	 */
+	public Set<String> getReferencedNames() {
+		return this.referencedNames;
+	}
+
+	/**
+	 * @param names	:	the names to check	:	{@code Set<String>}
+	 * @return {@code true} if this compilation unit references any of {@code names}
+	 */
+	public boolean references(Set<String> names) {
+		for (String name : names) {
+			if (this.referencedNames.contains(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,169 @@
+package visitor;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.TypeParameterTree;
+import com.sun.source.tree.VariableTree;
+
+/**
+ * The declarations made in a single {@link Environment}, indexed by simple name
+ * <p>
+ * Declarations are kept in separate namespaces (types, methods and variables) like in Java, all the
+ * declarations of a name in a scope (including overloaded methods) are chained with the newest one first.
+ * Every declaration keeps the start position of its tree as an ordering key, so block scopes can tell
+ * which declarations come before a given use.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class SymbolTable {
+
+	public static enum Namespace {TYPE, METHOD, VARIABLE};
+
+	/**
+	 * A declaration of a name in a namespace
+	 */
+	protected static class Symbol {
+		protected final Namespace namespace;
+		protected EnvironmentEntry entry;
+		/**
+		 * The start position of the declaring tree or {@code -1} if unknown
+		 */
+		protected long position;
+		protected final Symbol next;
+
+		protected Symbol(Namespace namespace, EnvironmentEntry entry, Symbol next) {
+			this.namespace = namespace;
+			this.entry = entry;
+			this.position = entry.getStartPosition();
+			this.next = next;
+		}
+	}
+
+	protected Map<String, Symbol> symbols;
+
+	public SymbolTable() {
+		this.symbols = new HashMap<String, Symbol>();
+	}
+
+	/**
+	 * @param tree	:	the tree to check	:	{@code Tree}
+	 * @return the namespace of the name declared by {@code tree} or {@code null} if {@code tree} is not a named declaration	:	{@code Namespace}
+	 */
+	public static Namespace namespaceOf(Tree tree) {
+		if (tree instanceof VariableTree) {
+			return Namespace.VARIABLE;
+		} else if (tree instanceof MethodTree) {
+			return Namespace.METHOD;
+		} else if (tree instanceof ClassTree) {
+			return ((ClassTree) tree).getSimpleName().length() == 0 ? null : Namespace.TYPE;
+		} else if (tree instanceof TypeParameterTree) {
+			return Namespace.TYPE;
+		}
+		return null;
+	}
+
+	/**
+	 * @param tree	:	a tree for which {@link SymbolTable#namespaceOf(Tree)} is not {@code null}	:	{@code Tree}
+	 * @return the simple name declared by {@code tree}	:	{@code String}
+	 */
+	public static String nameOf(Tree tree) {
+		if (tree instanceof VariableTree) {
+			return ((VariableTree) tree).getName().toString();
+		} else if (tree instanceof MethodTree) {
+			return ((MethodTree) tree).getName().toString();
+		} else if (tree instanceof ClassTree) {
+			return ((ClassTree) tree).getSimpleName().toString();
+		} else {
+			return ((TypeParameterTree) tree).getName().toString();
+		}
+	}
+
+	/**
+	 * Adds a declaration
+	 *
+	 * @param name		:	the declared name	:	{@code String}
+	 * @param namespace	:	the namespace of the declaration	:	{@code Namespace}
+	 * @param entry		:	the entry of the declaring tree	:	{@code EnvironmentEntry}
+	 */
+	public void declare(String name, Namespace namespace, EnvironmentEntry entry) {
+		this.symbols.put(name, new Symbol(namespace, entry, this.symbols.get(name)));
+	}
+
+	/**
+	 * Replaces the declaration made by {@code old} with {@code replacement}, used when an entry is overridden
+	 *
+	 * @param name			:	the declared name	:	{@code String}
+	 * @param old			:	the entry to replace	:	{@code EnvironmentEntry}
+	 * @param replacement	:	the new entry	:	{@code EnvironmentEntry}
+	 */
+	public void replace(String name, EnvironmentEntry old, EnvironmentEntry replacement) {
+		for (Symbol symbol = this.symbols.get(name); symbol != null; symbol = symbol.next) {
+			if (symbol.entry == old) {
+				symbol.entry = replacement;
+				symbol.position = replacement.getStartPosition();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param name		:	the name to look for	:	{@code String}
+	 * @param namespace	:	the namespace to look in	:	{@code Namespace}
+	 * @return the newest declaration of {@code name} in {@code namespace} or {@code null}	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry lookup(String name, Namespace namespace) {
+		for (Symbol symbol = this.symbols.get(name); symbol != null; symbol = symbol.next) {
+			if (symbol.namespace == namespace) {
+				return symbol.entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param name		:	the name to look for	:	{@code String}
+	 * @param namespace	:	the namespace to look in	:	{@code Namespace}
+	 * @param position	:	the position of the use, {@code -1} to ignore the positions of the declarations	:	{@code long}
+	 * @return the newest declaration of {@code name} in {@code namespace} starting at or before {@code position}, declarations with unknown positions always match	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry lookup(String name, Namespace namespace, long position) {
+		for (Symbol symbol = this.symbols.get(name); symbol != null; symbol = symbol.next) {
+			if (symbol.namespace == namespace && (position < 0 || symbol.position < 0 || symbol.position <= position)) {
+				return symbol.entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param name		:	the name to look for	:	{@code String}
+	 * @param namespace	:	the namespace to look in	:	{@code Namespace}
+	 * @param found		:	the list where all declarations of {@code name} in {@code namespace} are added, newest first	:	{@code List<EnvironmentEntry>}
+	 */
+	public void lookupAll(String name, Namespace namespace, List<EnvironmentEntry> found) {
+		for (Symbol symbol = this.symbols.get(name); symbol != null; symbol = symbol.next) {
+			if (symbol.namespace == namespace) {
+				found.add(symbol.entry);
+			}
+		}
+	}
+
+	/**
+	 * @return the names declared in this table	:	{@code List<String>}
+	 */
+	public List<String> getNames() {
+		return new LinkedList<String>(this.symbols.keySet());
+	}
+
+	public int size() {
+		return this.symbols.size();
+	}
+
+}
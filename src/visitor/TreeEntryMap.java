@@ -0,0 +1,146 @@
+package visitor;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.sun.source.tree.Tree;
+
+/**
+ * Map from {@code Tree} to {@link EnvironmentEntry} used by {@link Environment}
+ * <p>
+ * Trees are compared by identity and, since every entry already references its tree, only the entries
+ * are stored: a single open addressing table with linear probing, no per mapping node and no use of
+ * {@code hashCode} or {@code equals} from javac's trees. Entries can't be removed.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TreeEntryMap implements Iterable<EnvironmentEntry> {
+
+	private static final int INITIAL_CAPACITY = 4;
+	private static final EnvironmentEntry[] EMPTY = new EnvironmentEntry[0];
+
+	protected EnvironmentEntry[] table;
+	protected int size;
+
+	public TreeEntryMap() {
+		this.table = EMPTY;
+		this.size = 0;
+	}
+
+	/**
+	 * @param tree	:	the tree to look for	:	{@code Tree}
+	 * @return the entry associated with {@code tree} or {@code null}	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry get(Tree tree) {
+		if (this.size == 0) {
+			return null;
+		}
+		int mask = this.table.length - 1;
+		int slot = hash(tree) & mask;
+		EnvironmentEntry current;
+		while ((current = this.table[slot]) != null) {
+			if (current.treeElem == tree) {
+				return current;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	public boolean containsKey(Tree tree) {
+		return get(tree) != null;
+	}
+
+	/**
+	 * Associates {@code entry} with its tree, replacing any previous entry for the same tree
+	 *
+	 * @param entry	:	the entry to add	:	{@code EnvironmentEntry}
+	 * @return the replaced entry or {@code null}	:	{@code EnvironmentEntry}
+	 */
+	public EnvironmentEntry put(EnvironmentEntry entry) {
+		if ((this.size + 1) * 3 > this.table.length * 2) {
+			resize();
+		}
+		int mask = this.table.length - 1;
+		int slot = hash(entry.treeElem) & mask;
+		EnvironmentEntry current;
+		while ((current = this.table[slot]) != null) {
+			if (current.treeElem == entry.treeElem) {
+				this.table[slot] = entry;
+				return current;
+			}
+			slot = (slot + 1) & mask;
+		}
+		this.table[slot] = entry;
+		this.size++;
+		return null;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public Iterator<EnvironmentEntry> iterator() {
+		return new Iterator<EnvironmentEntry>() {
+
+			private int slot = advance(0);
+
+			private int advance(int from) {
+				int s = from;
+				while (s < table.length && table[s] == null) {
+					s++;
+				}
+				return s;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return this.slot < table.length;
+			}
+
+			@Override
+			public EnvironmentEntry next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				EnvironmentEntry entry = table[this.slot];
+				this.slot = advance(this.slot + 1);
+				return entry;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("visitor.TreeEntryMap entries can't be removed");
+			}
+
+		};
+	}
+
+	private void resize() {
+		EnvironmentEntry[] old = this.table;
+		this.table = new EnvironmentEntry[old.length == 0 ? INITIAL_CAPACITY : old.length * 2];
+		int mask = this.table.length - 1;
+		for (EnvironmentEntry entry : old) {
+			if (entry == null) {
+				continue;
+			}
+			int slot = hash(entry.treeElem) & mask;
+			while (this.table[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			this.table[slot] = entry;
+		}
+	}
+
+	private static int hash(Tree tree) {
+		int h = System.identityHashCode(tree);
+		return h ^ (h >>> 16);
+	}
+
+}
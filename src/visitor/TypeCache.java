@@ -0,0 +1,107 @@
+package visitor;
+
+import javax.lang.model.type.TypeMirror;
+
+import com.sun.source.tree.Tree;
+
+/**
+ * Bounded cache of the types returned by {@link Environment#getType(Tree)}, shared by all the
+ * environments of an environment tree
+ * <p>
+ * The cache is direct mapped and keyed by tree identity: each tree hashes to a single slot and a new
+ * type replaces whatever was stored there, so the memory used never grows beyond the capacity given
+ * at construction. Each slot also stores the environment holding the entry of the tree, a cached type
+ * is only returned when that environment is visible from the environment asking for it.
+ * <p>
+ * Only non {@code null} types are cached, javac may not have attributed a tree yet.
+ *
+ * @author Simon Emmanuel Gutierrez Brida
+ * @since 0.2
+ */
+public class TypeCache {
+
+	/**
+	 * The default amount of slots, must be a power of two
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 12;
+
+	protected final Tree[] keys;
+	protected final Environment[] owners;
+	protected final TypeMirror[] types;
+	protected final int mask;
+	protected long hits = 0;
+	protected long misses = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity	:	the amount of slots, rounded up to a power of two	:	{@code int}
+	 */
+	public TypeCache(int capacity) {
+		int slots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+		this.keys = new Tree[slots];
+		this.owners = new Environment[slots];
+		this.types = new TypeMirror[slots];
+		this.mask = slots - 1;
+	}
+
+	public TypeCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param from	:	the environment asking for the type	:	{@code Environment}
+	 * @param tree	:	the tree	:	{@code Tree}
+	 * @return the cached type of {@code tree} or {@code null} if there is no type visible from {@code from}	:	{@code TypeMirror}
+	 */
+	public TypeMirror get(Environment from, Tree tree) {
+		int slot = slot(tree);
+		if (this.keys[slot] == tree && from.isDescendantOf(this.owners[slot])) {
+			this.hits++;
+			return this.types[slot];
+		}
+		this.misses++;
+		return null;
+	}
+
+	/**
+	 * @param owner	:	the environment containing the entry for {@code tree}	:	{@code Environment}
+	 * @param tree	:	the tree	:	{@code Tree}
+	 * @param type	:	the type of {@code tree}, {@code null} values are ignored	:	{@code TypeMirror}
+	 */
+	public void put(Environment owner, Tree tree, TypeMirror type) {
+		if (type == null) {
+			return;
+		}
+		int slot = slot(tree);
+		this.keys[slot] = tree;
+		this.owners[slot] = owner;
+		this.types[slot] = type;
+	}
+
+	public void clear() {
+		for (int s = 0; s < this.keys.length; s++) {
+			this.keys[s] = null;
+			this.owners[s] = null;
+			this.types[s] = null;
+		}
+	}
+
+	public long getHits() {
+		return this.hits;
+	}
+
+	public long getMisses() {
+		return this.misses;
+	}
+
+	public int getCapacity() {
+		return this.keys.length;
+	}
+
+	private int slot(Tree tree) {
+		int h = System.identityHashCode(tree);
+		return (h ^ (h >>> 16)) & this.mask;
+	}
+
+}